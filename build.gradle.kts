@@ -1,6 +1,7 @@
 plugins {
     kotlin("jvm") version "2.0.20"
     application
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.example"
@@ -23,15 +24,63 @@ dependencies {
     implementation(kotlin("stdlib-jdk8"))
 }
 
+// VectorLeafKernel만 incubator 모듈인 Vector API를 사용하므로 별도 소스 세트로 분리해서 그 컴파일에만 모듈을 추가한다.
+// 다른 코드는 모듈 없이 컴파일되고, 실행 시 모듈이 없으면 LeafKernels가 스칼라 커널을 사용한다.
+val vector: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+}
+
+tasks.named<JavaCompile>(vector.compileJavaTaskName) {
+    options.compilerArgs.add("--add-modules=jdk.incubator.vector")
+}
+
+sourceSets.main {
+    runtimeClasspath += vector.output
+}
+
+sourceSets.test {
+    runtimeClasspath += vector.output
+}
+
+tasks.jar {
+    from(vector.output)
+}
+
 tasks.withType<Test>().configureEach {
     useJUnitPlatform()
 }
+
+// 기본 test는 모듈 없이 스칼라 커널로 실행하고, 리프 커널을 쓰는 테스트만 모듈을 추가해서 Vector API 커널로 한 번 더 실행한다.
+val vectorTest by tasks.registering(Test::class) {
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    filter {
+        includeTestsMatching("thread.ParallelThread")
+    }
+    jvmArgs("--add-modules=jdk.incubator.vector")
+}
+
+tasks.check {
+    dependsOn(vectorTest)
+}
 //tasks.test {
 //    useJUnitPlatform()
 //}
 
 kotlin {
-    jvmToolchain(17)
+    jvmToolchain(21)
+}
+
+// ./gradlew jmh, 벤치마크는 src/jmh/java에 둔다. 병렬 리듀싱을 바꿀 때마다 결과를 비교할 기준으로 사용한다.
+// 리프 커널 벤치마크가 Vector API 커널을 측정하도록 벤치마크 JVM에만 모듈을 추가한다.
+dependencies {
+    "jmhRuntimeOnly"(files(vector.output))
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    jvmArgsAppend.add("--add-modules=jdk.incubator.vector")
+    resultFormat.set("JSON")
 }
 
 application {
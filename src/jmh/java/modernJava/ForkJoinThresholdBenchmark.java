@@ -0,0 +1,53 @@
+package modernJava;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * ForkJoinSumCalculator의 분할 임계값과 리프 커널에 따른 처리 시간
+ * 임계값이 작으면 태스크를 만들고 훔치는 비용이, 크면 스레드 사이의 작업 불균형이 커진다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ForkJoinThresholdBenchmark {
+
+    @Param({"1000000", "10000000"})
+    private int size;
+
+    @Param({"1", "4", "8"})
+    private int threads;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private long threshold;
+
+    private long[] numbers;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        numbers = LongStream.rangeClosed(1, size).toArray();
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public long scalarLeaf() {
+        return pool.invoke(new ForkJoinSumCalculator(numbers, threshold, LeafKernel.scalar()));
+    }
+
+    @Benchmark
+    public long preferredLeaf() {
+        return pool.invoke(new ForkJoinSumCalculator(numbers, threshold, LeafKernel.preferred()));
+    }
+}
@@ -0,0 +1,188 @@
+package modernJava;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 같은 임계 영역(두 필드를 함께 읽거나 쓰기)을 동기화 방식별로 실행해서 경합에 따른 처리량과 지연 시간을 비교한다.
+ * writePercent는 쓰기 비율로, 읽기가 많을수록 StampedLock의 낙관적 읽기가 유리하다.
+ * ./gradlew jmh는 경합이 없는 {@link Uncontended}(스레드 1개)와 모든 CPU가 경합하는 {@link Contended}를 각각
+ * 처리량(ops/us)과 SampleTime(p50, p99, p99.99 지연 시간)으로 측정한다.
+ * {@link #main(String[])}은 그 사이의 경합 수준까지 보기 위해 스레드 수를 1부터 CPU 수까지 두 배씩 늘려가며 측정한다.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class LockContentionBenchmark {
+
+    @Threads(1)
+    @State(Scope.Benchmark)
+    public static class Uncontended extends LockContentionBenchmark {
+    }
+
+    @Threads(Threads.MAX)
+    @State(Scope.Benchmark)
+    public static class Contended extends LockContentionBenchmark {
+    }
+
+    @Param({"0", "10", "100"})
+    int writePercent;
+
+    private final Object monitor = new Object();
+    private final MonitorState monitorState = new MonitorState();
+    private final ReentrantLock unfairLock = new ReentrantLock();
+    private final ReentrantLock fairLock = new ReentrantLock(true);
+    private final StampedLock stampedLock = new StampedLock();
+    private final AtomicReference<Point> point = new AtomicReference<>(new Point(0, 0));
+    private long x;
+    private long y;
+
+    /**
+     * 이번 연산이 쓰기인지 정한다. 스레드마다 독립된 난수를 사용하므로 판단 자체는 경합하지 않는다.
+     */
+    private boolean write() {
+        return ThreadLocalRandom.current().nextInt(100) < writePercent;
+    }
+
+    @Benchmark
+    public long synchronizedBlock() {
+        boolean write = write();
+        synchronized (monitor) {
+            if (write) {
+                x++;
+                y += 2;
+            }
+            return x + y;
+        }
+    }
+
+    @Benchmark
+    public long synchronizedMethod() {
+        return write() ? monitorState.write() : monitorState.read();
+    }
+
+    @Benchmark
+    public long reentrantLockUnfair() {
+        return locked(unfairLock, write());
+    }
+
+    @Benchmark
+    public long reentrantLockFair() {
+        return locked(fairLock, write());
+    }
+
+    private long locked(ReentrantLock lock, boolean write) {
+        lock.lock();
+        try {
+            if (write) {
+                x++;
+                y += 2;
+            }
+            return x + y;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 읽기는 락 없이 읽고 그 사이에 쓰기가 없었는지만 확인한다. 쓰기가 끼어들었으면 읽기 락으로 다시 읽는다.
+     */
+    @Benchmark
+    public long stampedLockOptimistic() {
+        if (write()) {
+            long stamp = stampedLock.writeLock();
+            try {
+                x++;
+                y += 2;
+                return x + y;
+            } finally {
+                stampedLock.unlockWrite(stamp);
+            }
+        }
+        long stamp = stampedLock.tryOptimisticRead();
+        long sum = x + y;
+        if (stampedLock.validate(stamp)) {
+            return sum;
+        }
+        stamp = stampedLock.readLock();
+        try {
+            return x + y;
+        } finally {
+            stampedLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 두 필드를 불변 객체로 묶어 CAS로 교체한다. 쓰기마다 객체를 하나 만든다.
+     */
+    @Benchmark
+    public long atomicCas() {
+        if (!write()) {
+            Point current = point.get();
+            return current.x() + current.y();
+        }
+        while (true) {
+            Point current = point.get();
+            Point next = new Point(current.x() + 1, current.y() + 2);
+            if (point.compareAndSet(current, next)) {
+                return next.x() + next.y();
+            }
+        }
+    }
+
+    private record Point(long x, long y) {
+    }
+
+    private static final class MonitorState {
+        private long x;
+        private long y;
+
+        synchronized long write() {
+            x++;
+            y += 2;
+            return x + y;
+        }
+
+        synchronized long read() {
+            return x + y;
+        }
+    }
+
+    // 스레드 수는 아래에서 직접 지정하므로 같은 벤치마크를 두 번 돌리지 않도록 한쪽만 실행한다.
+    private static final String CONTENDED = LockContentionBenchmark.class.getSimpleName() + ".Contended\\.";
+
+    public static void main(String[] args) throws RunnerException {
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; ; threads = Math.min(threads * 2, processors)) {
+            Options throughput = new OptionsBuilder()
+                    .include(CONTENDED)
+                    .threads(threads)
+                    .mode(Mode.Throughput)
+                    .timeUnit(TimeUnit.SECONDS)
+                    .build();
+            new Runner(throughput).run();
+            Options latency = new OptionsBuilder()
+                    .include(CONTENDED)
+                    .threads(threads)
+                    .mode(Mode.SampleTime)
+                    .timeUnit(TimeUnit.NANOSECONDS)
+                    .build();
+            new Runner(latency).run();
+            if (threads == processors) {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package modernJava;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * 1부터 n까지의 합을 구하는 방법별 처리 시간, thread.ParallelThread의 parallelSum이 기준이다.
+ * 병렬 스트림은 ForkJoinPool 안에서 실행하면 그 풀에서 분할되므로 threads 크기의 풀에 제출해서 스레드 수를 바꾼다.
+ * ForkJoinSumCalculator는 배열이 필요하므로 배열을 만드는 시간은 측정에서 뺀다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ParallelSumBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private int size;
+
+    @Param({"1", "4", "8"})
+    private int threads;
+
+    private long[] numbers;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        numbers = LongStream.rangeClosed(1, size).toArray();
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * 기준값, 분할도 박싱도 없다.
+     */
+    @Benchmark
+    public long sequentialLoop() {
+        long result = 0;
+        for (long i = 1; i <= size; i++) {
+            result += i;
+        }
+        return result;
+    }
+
+    /**
+     * iterate는 이전 요소가 있어야 다음 요소를 만들 수 있어 분할하기 어렵고 요소마다 Long을 박싱한다.
+     */
+    @Benchmark
+    public long iterateParallel() {
+        return pool.submit(() -> Stream.iterate(1L, i -> i + 1)
+                .limit(size)
+                .parallel()
+                .reduce(0L, Long::sum)).join();
+    }
+
+    /**
+     * rangeClosed는 범위를 바로 절반으로 나눌 수 있고 기본형 long을 그대로 사용한다.
+     */
+    @Benchmark
+    public long rangeClosedParallel() {
+        return pool.submit(() -> LongStream.rangeClosed(1, size)
+                .parallel()
+                .sum()).join();
+    }
+
+    @Benchmark
+    public long forkJoinSumCalculator() {
+        return pool.invoke(new ForkJoinSumCalculator(numbers));
+    }
+
+    @Benchmark
+    public long forkJoinArrayReducer() {
+        return ForkJoinArrayReducer.reduce(numbers, 0, numbers.length, ForkJoinArrayReducer.LongOp.SUM, pool);
+    }
+}
@@ -1,25 +1,46 @@
 package modernJava;
 
+import modernJava.counter.CounterType;
+import modernJava.counter.LongCounter;
+
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * 여러 스레드가 증가시키는 카운터 예제, 증가 방식은 {@link CounterType}으로 바꾼다.
+ * {@link CounterType#RACY}는 volatile 필드에 count++를 하는 방식으로, 동시에 증가시키면 일부가 유실된다.
+ */
 public class Counter {
 
-    volatile int count = 0;
+    private final LongCounter count;
+
+    public Counter() {
+        this(CounterType.STRIPED);
+    }
+
+    public Counter(CounterType type) {
+        this.count = type.newCounter();
+    }
 
     public void increase() {
-        count++;
+        count.increment();
+    }
+
+    public long count() {
+        return count.sum();
     }
 
     public static void main(String[] args) throws InterruptedException {
-        final Counter counter = new Counter();
-        final ExecutorService executorService = Executors.newFixedThreadPool(20);
-        for (int i = 0 ; i < 10_000; i++) {
-            executorService.submit(counter::increase);
+        for (CounterType type : CounterType.values()) {
+            final Counter counter = new Counter(type);
+            final ExecutorService executorService = Executors.newFixedThreadPool(20);
+            for (int i = 0 ; i < 10_000; i++) {
+                executorService.submit(counter::increase);
+            }
+            executorService.shutdown();
+            executorService.awaitTermination(5, TimeUnit.SECONDS);
+            System.out.println(type + ": " + counter.count());
         }
-        executorService.awaitTermination(5, TimeUnit.SECONDS);
-        executorService.shutdown();
-        System.out.println(counter.count);
     }
 }
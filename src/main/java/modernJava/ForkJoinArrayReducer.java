@@ -0,0 +1,260 @@
+package modernJava;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * {@link ForkJoinSumCalculator}를 일반화해서 long[], int[], double[]을 결합 법칙이 성립하는 연산으로 병렬 리듀싱한다.
+ * 태스크는 RecursiveAction이고 결과를 기본형 필드에 담으므로 분할하고 합치는 동안 박싱이 없다.
+ * 리프 크기는 고정된 THRESHOLD 대신 배열 길이와 풀의 병렬도로 정한다. 스레드마다 4개 정도의 리프가 돌아가도록 나누되
+ * 너무 잘게 나누지 않도록 {@link #MIN_LEAF_SIZE}보다 작게 나누지 않는다.
+ * 연산이 SUM, MIN, MAX 상수이면 리프는 {@link LeafKernel}로 계산하고, 그 밖의 연산은 operator를 요소마다 호출한다.
+ */
+public final class ForkJoinArrayReducer {
+    public static final int MIN_LEAF_SIZE = 1 << 13;
+
+    private ForkJoinArrayReducer() {
+    }
+
+    /**
+     * long 연산과 항등원, operator는 결합 법칙이 성립해야 한다.
+     */
+    public record LongOp(long identity, LongBinaryOperator operator) {
+        public static final LongOp SUM = new LongOp(0, Long::sum);
+        public static final LongOp MIN = new LongOp(Long.MAX_VALUE, Math::min);
+        public static final LongOp MAX = new LongOp(Long.MIN_VALUE, Math::max);
+    }
+
+    /**
+     * int 연산과 항등원, operator는 결합 법칙이 성립해야 한다.
+     */
+    public record IntOp(int identity, IntBinaryOperator operator) {
+        public static final IntOp SUM = new IntOp(0, Integer::sum);
+        public static final IntOp MIN = new IntOp(Integer.MAX_VALUE, Math::min);
+        public static final IntOp MAX = new IntOp(Integer.MIN_VALUE, Math::max);
+    }
+
+    /**
+     * double 연산과 항등원, 부동소수점 덧셈은 결합 법칙이 정확히 성립하지 않으므로 SUM은 분할 방식에 따라 마지막 자리가 달라질 수 있다.
+     */
+    public record DoubleOp(double identity, DoubleBinaryOperator operator) {
+        public static final DoubleOp SUM = new DoubleOp(0, Double::sum);
+        public static final DoubleOp MIN = new DoubleOp(Double.POSITIVE_INFINITY, Math::min);
+        public static final DoubleOp MAX = new DoubleOp(Double.NEGATIVE_INFINITY, Math::max);
+    }
+
+    static int leafSize(int length, int parallelism) {
+        return Math.max(MIN_LEAF_SIZE, length / (parallelism * 4));
+    }
+
+    public static long reduce(long[] numbers, LongOp op) {
+        return reduce(numbers, 0, numbers.length, op, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * numbers[from, to)를 pool에서 병렬로 리듀싱한다. 빈 구간이면 항등원을 반환한다.
+     */
+    public static long reduce(long[] numbers, int from, int to, LongOp op, ForkJoinPool pool) {
+        return reduce(numbers, from, to, op, pool, LeafKernel.preferred());
+    }
+
+    /**
+     * 리프를 지정한 커널로 계산한다. 커널끼리 처리량을 비교할 때 사용한다.
+     */
+    public static long reduce(long[] numbers, int from, int to, LongOp op, ForkJoinPool pool, LeafKernel kernel) {
+        LongReduceTask task = new LongReduceTask(numbers, from, to, op, leafSize(to - from, pool.getParallelism()), kernel);
+        pool.invoke(task);
+        return task.result;
+    }
+
+    public static int reduce(int[] numbers, IntOp op) {
+        return reduce(numbers, 0, numbers.length, op, ForkJoinPool.commonPool());
+    }
+
+    public static int reduce(int[] numbers, int from, int to, IntOp op, ForkJoinPool pool) {
+        return reduce(numbers, from, to, op, pool, LeafKernel.preferred());
+    }
+
+    public static int reduce(int[] numbers, int from, int to, IntOp op, ForkJoinPool pool, LeafKernel kernel) {
+        IntReduceTask task = new IntReduceTask(numbers, from, to, op, leafSize(to - from, pool.getParallelism()), kernel);
+        pool.invoke(task);
+        return task.result;
+    }
+
+    public static double reduce(double[] numbers, DoubleOp op) {
+        return reduce(numbers, 0, numbers.length, op, ForkJoinPool.commonPool());
+    }
+
+    public static double reduce(double[] numbers, int from, int to, DoubleOp op, ForkJoinPool pool) {
+        return reduce(numbers, from, to, op, pool, LeafKernel.preferred());
+    }
+
+    public static double reduce(double[] numbers, int from, int to, DoubleOp op, ForkJoinPool pool, LeafKernel kernel) {
+        DoubleReduceTask task = new DoubleReduceTask(numbers, from, to, op, leafSize(to - from, pool.getParallelism()), kernel);
+        pool.invoke(task);
+        return task.result;
+    }
+
+    /**
+     * 리프 하나를 순차로 리듀싱한다. {@link ForkJoinPrefixScan}의 up-sweep도 같은 리프를 사용한다.
+     */
+    static long reduceSequentially(long[] numbers, int from, int to, LongOp op, LeafKernel kernel) {
+        if (op == LongOp.SUM) {
+            return kernel.sum(numbers, from, to);
+        } else if (op == LongOp.MIN) {
+            return kernel.min(numbers, from, to);
+        } else if (op == LongOp.MAX) {
+            return kernel.max(numbers, from, to);
+        }
+        LongBinaryOperator operator = op.operator();
+        long acc = op.identity();
+        for (int i = from; i < to; i++) {
+            acc = operator.applyAsLong(acc, numbers[i]);
+        }
+        return acc;
+    }
+
+    private static final class LongReduceTask extends RecursiveAction {
+        private final long[] numbers;
+        private final int start;
+        private final int end;
+        private final LongOp op;
+        private final int leafSize;
+        private final LeafKernel kernel;
+        private long result;
+
+        LongReduceTask(long[] numbers, int start, int end, LongOp op, int leafSize, LeafKernel kernel) {
+            this.numbers = numbers;
+            this.start = start;
+            this.end = end;
+            this.op = op;
+            this.leafSize = leafSize;
+            this.kernel = kernel;
+        }
+
+        @Override
+        protected void compute() {
+            int length = end - start;
+            if (length <= leafSize) {
+                result = computeSequentially();
+                return;
+            }
+            int middle = start + length / 2;
+            LongReduceTask leftTask = new LongReduceTask(numbers, start, middle, op, leafSize, kernel);
+            leftTask.fork();    // 앞쪽 절반은 다른 스레드에서 비동기로 실행한다.
+            LongReduceTask rightTask = new LongReduceTask(numbers, middle, end, op, leafSize, kernel);
+            rightTask.compute();
+            leftTask.join();    // RecursiveAction이므로 join은 결과를 박싱하지 않는다.
+            result = op.operator().applyAsLong(leftTask.result, rightTask.result);
+        }
+
+        private long computeSequentially() {
+            return reduceSequentially(numbers, start, end, op, kernel);
+        }
+    }
+
+    private static final class IntReduceTask extends RecursiveAction {
+        private final int[] numbers;
+        private final int start;
+        private final int end;
+        private final IntOp op;
+        private final int leafSize;
+        private final LeafKernel kernel;
+        private int result;
+
+        IntReduceTask(int[] numbers, int start, int end, IntOp op, int leafSize, LeafKernel kernel) {
+            this.numbers = numbers;
+            this.start = start;
+            this.end = end;
+            this.op = op;
+            this.leafSize = leafSize;
+            this.kernel = kernel;
+        }
+
+        @Override
+        protected void compute() {
+            int length = end - start;
+            if (length <= leafSize) {
+                result = computeSequentially();
+                return;
+            }
+            int middle = start + length / 2;
+            IntReduceTask leftTask = new IntReduceTask(numbers, start, middle, op, leafSize, kernel);
+            leftTask.fork();
+            IntReduceTask rightTask = new IntReduceTask(numbers, middle, end, op, leafSize, kernel);
+            rightTask.compute();
+            leftTask.join();
+            result = op.operator().applyAsInt(leftTask.result, rightTask.result);
+        }
+
+        private int computeSequentially() {
+            if (op == IntOp.SUM) {
+                return kernel.sum(numbers, start, end);
+            } else if (op == IntOp.MIN) {
+                return kernel.min(numbers, start, end);
+            } else if (op == IntOp.MAX) {
+                return kernel.max(numbers, start, end);
+            }
+            IntBinaryOperator operator = op.operator();
+            int acc = op.identity();
+            for (int i = start; i < end; i++) {
+                acc = operator.applyAsInt(acc, numbers[i]);
+            }
+            return acc;
+        }
+    }
+
+    private static final class DoubleReduceTask extends RecursiveAction {
+        private final double[] numbers;
+        private final int start;
+        private final int end;
+        private final DoubleOp op;
+        private final int leafSize;
+        private final LeafKernel kernel;
+        private double result;
+
+        DoubleReduceTask(double[] numbers, int start, int end, DoubleOp op, int leafSize, LeafKernel kernel) {
+            this.numbers = numbers;
+            this.start = start;
+            this.end = end;
+            this.op = op;
+            this.leafSize = leafSize;
+            this.kernel = kernel;
+        }
+
+        @Override
+        protected void compute() {
+            int length = end - start;
+            if (length <= leafSize) {
+                result = computeSequentially();
+                return;
+            }
+            int middle = start + length / 2;
+            DoubleReduceTask leftTask = new DoubleReduceTask(numbers, start, middle, op, leafSize, kernel);
+            leftTask.fork();
+            DoubleReduceTask rightTask = new DoubleReduceTask(numbers, middle, end, op, leafSize, kernel);
+            rightTask.compute();
+            leftTask.join();
+            result = op.operator().applyAsDouble(leftTask.result, rightTask.result);
+        }
+
+        private double computeSequentially() {
+            if (op == DoubleOp.SUM) {
+                return kernel.sum(numbers, start, end);
+            } else if (op == DoubleOp.MIN) {
+                return kernel.min(numbers, start, end);
+            } else if (op == DoubleOp.MAX) {
+                return kernel.max(numbers, start, end);
+            }
+            DoubleBinaryOperator operator = op.operator();
+            double acc = op.identity();
+            for (int i = start; i < end; i++) {
+                acc = operator.applyAsDouble(acc, numbers[i]);
+            }
+            return acc;
+        }
+    }
+}
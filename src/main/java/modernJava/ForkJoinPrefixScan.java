@@ -0,0 +1,162 @@
+package modernJava;
+
+import modernJava.ForkJoinArrayReducer.LongOp;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * long[]의 누적값(prefix scan)을 fork/join으로 계산해서 배열에 그대로 덮어쓴다.
+ * {@link ForkJoinSumCalculator}처럼 배열을 절반씩 나누되 두 번 순회한다.
+ * <ol>
+ *     <li>up-sweep: 리프(블록)마다 리듀싱한 값을 구하고 트리를 따라 올라가며 합친다.</li>
+ *     <li>down-sweep: up-sweep에서 만든 트리를 그대로 내려가며 각 블록 앞쪽 전체의 누적값을 넘겨주고,
+ *     리프는 그 값에서 시작해서 블록을 순차로 스캔한다.</li>
+ * </ol>
+ * 두 단계가 같은 트리를 사용하므로 블록 경계가 어긋나지 않는다. 배열을 두 번 읽으므로 배열이 리프 하나보다 작으면 순차로 스캔한다.
+ * 리프 크기는 {@link ForkJoinArrayReducer}와 같은 방식으로 정한다.
+ */
+public final class ForkJoinPrefixScan {
+
+    private ForkJoinPrefixScan() {
+    }
+
+    /**
+     * numbers[i]를 numbers[0] + ... + numbers[i]로 바꾸고 전체 합을 반환한다.
+     */
+    public static long inclusiveScan(long[] numbers) {
+        return inclusiveScan(numbers, 0, numbers.length, LongOp.SUM, ForkJoinPool.commonPool());
+    }
+
+    public static long inclusiveScan(long[] numbers, LongOp op) {
+        return inclusiveScan(numbers, 0, numbers.length, op, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * numbers[from, to)를 op로 누적한 값으로 바꾸고 구간 전체를 리듀싱한 값을 반환한다. 빈 구간이면 항등원을 반환한다.
+     */
+    public static long inclusiveScan(long[] numbers, int from, int to, LongOp op, ForkJoinPool pool) {
+        return scan(numbers, from, to, op, pool, false);
+    }
+
+    /**
+     * numbers[i]를 numbers[0] + ... + numbers[i - 1]로 바꾸고(numbers[0]은 0) 전체 합을 반환한다.
+     * 마지막 요소가 덮어써지므로 전체 합은 반환값으로만 알 수 있다.
+     */
+    public static long exclusiveScan(long[] numbers) {
+        return exclusiveScan(numbers, 0, numbers.length, LongOp.SUM, ForkJoinPool.commonPool());
+    }
+
+    public static long exclusiveScan(long[] numbers, LongOp op) {
+        return exclusiveScan(numbers, 0, numbers.length, op, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * numbers[from, to)의 각 요소를 자기 앞쪽 요소까지 op로 누적한 값으로 바꾼다. numbers[from]은 항등원이 된다.
+     */
+    public static long exclusiveScan(long[] numbers, int from, int to, LongOp op, ForkJoinPool pool) {
+        return scan(numbers, from, to, op, pool, true);
+    }
+
+    private static long scan(long[] numbers, int from, int to, LongOp op, ForkJoinPool pool, boolean exclusive) {
+        int leafSize = ForkJoinArrayReducer.leafSize(to - from, pool.getParallelism());
+        if (to - from <= leafSize) {
+            return scanSequentially(numbers, from, to, op.operator(), op.identity(), exclusive);
+        }
+        UpSweepTask root = new UpSweepTask(numbers, from, to, op, leafSize);
+        pool.invoke(root);
+        pool.invoke(new DownSweepTask(root, op.identity(), exclusive));
+        return root.result;
+    }
+
+    /**
+     * prefix에서 시작해서 numbers[from, to)를 순차로 스캔하고 마지막 누적값을 반환한다.
+     */
+    private static long scanSequentially(long[] numbers, int from, int to, LongBinaryOperator operator,
+                                         long prefix, boolean exclusive) {
+        long acc = prefix;
+        if (exclusive) {
+            for (int i = from; i < to; i++) {
+                long value = numbers[i];
+                numbers[i] = acc;
+                acc = operator.applyAsLong(acc, value);
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                acc = operator.applyAsLong(acc, numbers[i]);
+                numbers[i] = acc;
+            }
+        }
+        return acc;
+    }
+
+    /**
+     * 구간을 리듀싱하면서 분할한 서브태스크를 트리로 남겨 down-sweep이 같은 블록 경계를 사용하게 한다.
+     */
+    private static final class UpSweepTask extends RecursiveAction {
+        private final long[] numbers;
+        private final int start;
+        private final int end;
+        private final LongOp op;
+        private final int leafSize;
+        private UpSweepTask left;
+        private UpSweepTask right;
+        private long result;
+
+        UpSweepTask(long[] numbers, int start, int end, LongOp op, int leafSize) {
+            this.numbers = numbers;
+            this.start = start;
+            this.end = end;
+            this.op = op;
+            this.leafSize = leafSize;
+        }
+
+        boolean isLeaf() {
+            return left == null;
+        }
+
+        @Override
+        protected void compute() {
+            int length = end - start;
+            if (length <= leafSize) {
+                result = ForkJoinArrayReducer.reduceSequentially(numbers, start, end, op, LeafKernel.preferred());
+                return;
+            }
+            int middle = start + length / 2;
+            left = new UpSweepTask(numbers, start, middle, op, leafSize);
+            right = new UpSweepTask(numbers, middle, end, op, leafSize);
+            left.fork();
+            right.compute();
+            left.join();
+            result = op.operator().applyAsLong(left.result, right.result);
+        }
+    }
+
+    /**
+     * 왼쪽 서브트리에는 받은 누적값을, 오른쪽 서브트리에는 누적값에 왼쪽 서브트리의 리듀싱 값을 합쳐서 넘긴다.
+     */
+    private static final class DownSweepTask extends RecursiveAction {
+        private final UpSweepTask node;
+        private final long prefix;
+        private final boolean exclusive;
+
+        DownSweepTask(UpSweepTask node, long prefix, boolean exclusive) {
+            this.node = node;
+            this.prefix = prefix;
+            this.exclusive = exclusive;
+        }
+
+        @Override
+        protected void compute() {
+            if (node.isLeaf()) {
+                scanSequentially(node.numbers, node.start, node.end, node.op.operator(), prefix, exclusive);
+                return;
+            }
+            DownSweepTask leftTask = new DownSweepTask(node.left, prefix, exclusive);
+            leftTask.fork();
+            new DownSweepTask(node.right, node.op.operator().applyAsLong(prefix, node.left.result), exclusive).compute();
+            leftTask.join();
+        }
+    }
+}
@@ -2,46 +2,63 @@ package modernJava;
 
 import java.util.concurrent.RecursiveTask;
 
+/**
+ * long[]의 합을 fork/join으로 계산하는 예제, 다른 연산이나 int[], double[]은 {@link ForkJoinArrayReducer}를 사용한다.
+ * 리프의 순차 합계는 {@link LeafKernel}이 계산하며 기본값은 {@link LeafKernel#preferred()}이다.
+ */
 public class ForkJoinSumCalculator extends RecursiveTask<Long> {
 
     private final long[] numbers;
     private final int start;
     private final int end;
+    private final long threshold;
+    private final LeafKernel kernel;
     public static final long THRESHOLD = 10_000;
 
-    private ForkJoinSumCalculator(long[] numbers, int start, int end) {
+    private ForkJoinSumCalculator(long[] numbers, int start, int end, long threshold, LeafKernel kernel) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("threshold must be positive: " + threshold);
+        }
         this.numbers = numbers;
         this.start = start;
         this.end = end;
+        this.threshold = threshold;
+        this.kernel = kernel;
     }
 
     public ForkJoinSumCalculator(long[] numbers) {
-        this(numbers, 0, numbers.length);
+        this(numbers, THRESHOLD, LeafKernel.preferred());
+    }
+
+    public ForkJoinSumCalculator(long[] numbers, LeafKernel kernel) {
+        this(numbers, THRESHOLD, kernel);
+    }
+
+    /**
+     * threshold 이하로 나뉜 구간은 더 이상 분할하지 않고 순차로 합산한다. 임계값에 따른 처리량은 ForkJoinThresholdBenchmark로 비교한다.
+     */
+    public ForkJoinSumCalculator(long[] numbers, long threshold, LeafKernel kernel) {
+        this(numbers, 0, numbers.length, threshold, kernel);
     }
 
     @Override
     protected Long compute() {
         int length = end - start;
-        if (length <= THRESHOLD) {
+        if (length <= threshold) {
             return computeSequentially();
         }
-        System.out.printf("%s start: %d, end: %d\n", Thread.currentThread().getName(), start, end);
         ForkJoinSumCalculator leftTask =
-                new ForkJoinSumCalculator(numbers, start, start + length / 2);
+                new ForkJoinSumCalculator(numbers, start, start + length / 2, threshold, kernel);
         leftTask.fork();    // ForkJoinPool의 다른 스레드로 새로 생성한 태스크를 비동기로 실행한다.
 
         ForkJoinSumCalculator rightTask =
-                new ForkJoinSumCalculator(numbers, start + length / 2, end);
+                new ForkJoinSumCalculator(numbers, start + length / 2, end, threshold, kernel);
         Long rightResult = rightTask.compute();     // 두 번째 서브태스크를 동기 실행한다. 이때 추가로 분할이 일어날 수 있다.
         Long leftResult = leftTask.join();          // 첫 번째 서브태스크의 결과를 읽거나 아직 결과가 없으면 기다린다.
         return leftResult + rightResult;
     }
 
     private Long computeSequentially() {
-        long sum = 0;
-        for (int i = start ; i < end ; i++) {
-            sum += numbers[i];
-        }
-        return sum;
+        return kernel.sum(numbers, start, end);
     }
 }
@@ -0,0 +1,50 @@
+package modernJava;
+
+/**
+ * 서로 다른 값의 수를 고정된 메모리(2^14 바이트)로 추정한다. 표준 오차는 약 0.8%다.
+ * 레지스터마다 최댓값만 기억하므로 스레드마다 따로 모은 뒤 merge로 합칠 수 있다.
+ */
+final class HyperLogLog {
+    private static final int P = 14;
+    private static final int M = 1 << P;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / M);
+
+    private final byte[] registers = new byte[M];
+
+    /**
+     * 잘 섞인 64비트 해시를 추가한다. 상위 P비트로 레지스터를 고르고 나머지 비트의 앞쪽 0의 수를 기억한다.
+     */
+    void add(long hash) {
+        int index = (int) (hash >>> (64 - P));
+        // 나머지 비트가 모두 0이어도 순위가 64 - P + 1을 넘지 않도록 경계 비트를 둔다.
+        byte rank = (byte) (Long.numberOfLeadingZeros(hash << P | 1L << (P - 1)) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    void merge(HyperLogLog other) {
+        for (int i = 0; i < M; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * M * M / sum;
+        // 값이 적을 때는 비어 있는 레지스터 수로 세는 편(linear counting)이 더 정확하다.
+        if (estimate <= 2.5 * M && zeros > 0) {
+            estimate = M * Math.log((double) M / zeros);
+        }
+        return Math.round(estimate);
+    }
+}
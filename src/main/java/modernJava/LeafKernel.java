@@ -0,0 +1,45 @@
+package modernJava;
+
+/**
+ * fork/join 리듀싱의 리프에서 배열 구간을 순차로 합치는 커널
+ * 리듀싱 시간의 대부분은 리프에서 쓰이므로 {@link ForkJoinSumCalculator}와 {@link ForkJoinArrayReducer}는
+ * 커널을 바꿔 끼울 수 있다. 각 메서드는 array[from, to) 구간을 계산하고, 빈 구간이면 연산의 항등원을 반환한다.
+ */
+public interface LeafKernel {
+
+    /**
+     * 루프를 펼친 스칼라 커널
+     */
+    static LeafKernel scalar() {
+        return ScalarLeafKernel.INSTANCE;
+    }
+
+    /**
+     * jdk.incubator.vector 모듈이 있으면 Vector API 커널을, 없으면 스칼라 커널을 반환한다.
+     * 시스템 프로퍼티 {@code modernJava.leafKernel=scalar}로 스칼라 커널을 강제할 수 있다.
+     */
+    static LeafKernel preferred() {
+        return LeafKernels.PREFERRED;
+    }
+
+    long sum(long[] array, int from, int to);
+
+    long min(long[] array, int from, int to);
+
+    long max(long[] array, int from, int to);
+
+    int sum(int[] array, int from, int to);
+
+    int min(int[] array, int from, int to);
+
+    int max(int[] array, int from, int to);
+
+    /**
+     * 덧셈 순서가 순차 루프와 다르므로 마지막 자리가 다를 수 있다.
+     */
+    double sum(double[] array, int from, int to);
+
+    double min(double[] array, int from, int to);
+
+    double max(double[] array, int from, int to);
+}
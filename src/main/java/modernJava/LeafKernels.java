@@ -0,0 +1,25 @@
+package modernJava;
+
+/**
+ * Vector API 커널은 jdk.incubator.vector 모듈이 없으면 클래스를 읽을 수 없으므로 리플렉션으로 불러온다.
+ * 커널은 모듈을 추가해서 컴파일하는 별도 소스 세트(src/vector/java)에 있고, 실행할 때
+ * {@code --add-modules=jdk.incubator.vector}를 주지 않으면 스칼라 커널을 사용한다.
+ */
+final class LeafKernels {
+    static final LeafKernel PREFERRED = load();
+
+    private LeafKernels() {
+    }
+
+    private static LeafKernel load() {
+        if ("scalar".equals(System.getProperty("modernJava.leafKernel"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return ScalarLeafKernel.INSTANCE;
+        }
+        try {
+            return (LeafKernel) Class.forName("modernJava.VectorLeafKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return ScalarLeafKernel.INSTANCE;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package modernJava;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.StreamSupport;
+
+/**
+ * 힙에 올리기 어려운 큰 UTF-8 파일의 단어 수를 메모리 맵과 병렬 스트림으로 센다.
+ */
+public final class MappedFileWordCounter {
+
+    private MappedFileWordCounter() {
+    }
+
+    public static long countWords(Path file) {
+        return countWords(file, MappedWordCounterSpliterator.DEFAULT_MIN_SPLIT_SIZE);
+    }
+
+    /**
+     * 파일을 minSplitSize 바이트 이상의 구간으로 나눠 병렬로 세고, 구간마다 만든 WordCounter를 combine으로 합친다.
+     * 구간은 공백에서 나뉘므로 WordCounter.combine이 단어를 두 번 세지 않는다.
+     * 수 GB 파일은 단어 수가 int를 넘을 수 있으므로 long으로 반환한다.
+     */
+    public static long countWords(Path file, int minSplitSize) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return StreamSupport.stream(new MappedWordCounterSpliterator(channel, minSplitSize), true)
+                    .reduce(new WordCounter(0, true), WordCounter::combine)
+                    .getLongCounter();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package modernJava;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * 메모리 맵으로 연 UTF-8 파일의 구간을 탐색하는 Spliterator
+ * 파일을 힙으로 읽지 않고 최대 1GB 단위의 MappedByteBuffer 여러 개로 매핑해서 모든 분할이 공유한다.
+ * 분할은 오프셋만 나누므로 데이터를 복사하지 않으며, 분할 위치는 중간 이후의 첫 ASCII 공백으로 옮긴다.
+ * ASCII 공백 바이트는 여러 바이트로 인코딩된 문자의 일부일 수 없으므로 문자나 단어 중간에서 나뉘지 않는다.
+ *
+ * 더 이상 분할하지 않는 구간은 한 번에 세어 {@link WordCounter} 하나로 전달하므로,
+ * {@code reduce(new WordCounter(0, true), (acc, wc) -> acc.combine(wc), WordCounter::combine)}처럼
+ * 기존 WordCounter의 combine으로 합칠 수 있다.
+ * 공백은 {@link Character#isWhitespace(int)} 기준이며 U+2003 같은 여러 바이트 공백도 디코딩해서 판단한다.
+ */
+public class MappedWordCounterSpliterator implements Spliterator<WordCounter> {
+    public static final int DEFAULT_MIN_SPLIT_SIZE = 1 << 20;
+    // MappedByteBuffer는 int 인덱스를 사용하므로 2GB보다 작은 단위로 나눠 매핑한다.
+    private static final int WINDOW_SHIFT = 30;
+    private static final int WINDOW_MASK = (1 << WINDOW_SHIFT) - 1;
+
+    private final MappedByteBuffer[] windows;
+    private final long fileSize;
+    private final int minSplitSize;
+    private long from;
+    private final long to;
+
+    /**
+     * 파일 전체를 읽기 전용으로 매핑한다. 매핑은 채널을 닫은 뒤에도 유효하다.
+     */
+    public MappedWordCounterSpliterator(FileChannel channel) {
+        this(channel, DEFAULT_MIN_SPLIT_SIZE);
+    }
+
+    /**
+     * @param minSplitSize 이 크기(바이트)보다 작은 구간은 더 분할하지 않는다.
+     */
+    public MappedWordCounterSpliterator(FileChannel channel, int minSplitSize) {
+        if (minSplitSize <= 0) {
+            throw new IllegalArgumentException("minSplitSize must be positive: " + minSplitSize);
+        }
+        try {
+            long size = channel.size();
+            this.windows = new MappedByteBuffer[(int) ((size + WINDOW_MASK) >>> WINDOW_SHIFT)];
+            for (int i = 0; i < windows.length; i++) {
+                long position = (long) i << WINDOW_SHIFT;
+                windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, 1L << WINDOW_SHIFT));
+            }
+            this.fileSize = size;
+            this.minSplitSize = minSplitSize;
+            this.from = 0;
+            this.to = size;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private MappedWordCounterSpliterator(MappedByteBuffer[] windows, long fileSize, int minSplitSize, long from, long to) {
+        this.windows = windows;
+        this.fileSize = fileSize;
+        this.minSplitSize = minSplitSize;
+        this.from = from;
+        this.to = to;
+    }
+
+    private byte byteAt(long position) {
+        // 절대 위치로 읽으므로 여러 스레드가 같은 버퍼를 공유해도 된다.
+        return windows[(int) (position >>> WINDOW_SHIFT)].get((int) (position & WINDOW_MASK));
+    }
+
+    /**
+     * 남은 구간 전체를 세어서 WordCounter 하나로 전달한다. 구간은 파일의 시작이거나 공백에서 시작하므로
+     * 공백 다음 상태에서 시작한다.
+     */
+    @Override
+    public boolean tryAdvance(Consumer<? super WordCounter> action) {
+        if (from >= to) {
+            return false;
+        }
+        long start = from;
+        from = to;
+        action.accept(count(start, to));
+        return true;
+    }
+
+    private WordCounter count(long start, long end) {
+        // 공백 없이 U+2003으로만 나뉜 파일처럼 분할되지 않는 구간도 있으므로 구간 하나의 단어 수도 int를 넘을 수 있다.
+        long counter = 0;
+        int inWord = 0;
+        long position = start;
+        while (position < end) {
+            // 윈도 하나 안에서는 int 인덱스로 버퍼를 바로 읽는다.
+            MappedByteBuffer window = windows[(int) (position >>> WINDOW_SHIFT)];
+            long windowStart = position & ~(long) WINDOW_MASK;
+            int limit = (int) (Math.min(end, windowStart + window.capacity()) - windowStart);
+            for (int i = (int) (position - windowStart); i < limit; i++) {
+                int b = window.get(i) & 0xFF;
+                if ((b & 0xC0) == 0x80) {
+                    continue;   // 여러 바이트 문자의 연속 바이트는 첫 바이트가 정한 상태를 유지한다.
+                }
+                int word = b < 0x80 ? WordCountEngine.wordChar((char) b) : multiByteWordChar(b, windowStart + i);
+                counter += word & ~inWord;
+                inWord = word;
+            }
+            position = windowStart + limit;
+        }
+        return new WordCounter(counter, inWord == 0);
+    }
+
+    /**
+     * 여러 바이트로 인코딩된 문자가 공백이면 0, 아니면 1
+     * ASCII가 아닌 공백은 모두 3바이트(U+1680, U+2000~U+205F, U+3000)이므로 E1~E3으로 시작할 때만 디코딩한다.
+     */
+    private int multiByteWordChar(int lead, long position) {
+        if (lead < 0xE1 || lead > 0xE3 || position + 2 >= fileSize) {
+            return 1;
+        }
+        int codePoint = (lead & 0x0F) << 12 | (byteAt(position + 1) & 0x3F) << 6 | byteAt(position + 2) & 0x3F;
+        return Character.isWhitespace(codePoint) ? 0 : 1;
+    }
+
+    /**
+     * 중간 위치 이후의 첫 ASCII 공백에서 나눈다. 앞쪽 구간을 새 Spliterator로 반환하고 이 Spliterator는 공백부터 탐색한다.
+     */
+    @Override
+    public Spliterator<WordCounter> trySplit() {
+        long size = to - from;
+        if (size < (long) minSplitSize * 2) {
+            return null;
+        }
+        for (long splitPos = from + size / 2; splitPos < to; splitPos++) {
+            int b = byteAt(splitPos);
+            if (b >= 0 && WordCountEngine.wordChar((char) b) == 0) {
+                Spliterator<WordCounter> prefix = new MappedWordCounterSpliterator(windows, fileSize, minSplitSize, from, splitPos);
+                from = splitPos;
+                return prefix;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 남은 바이트 수, 분할할 때 구간의 크기를 비교하는 데 사용한다.
+     */
+    @Override
+    public long estimateSize() {
+        return to - from;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED + NONNULL + IMMUTABLE;
+    }
+}
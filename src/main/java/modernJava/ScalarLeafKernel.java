@@ -0,0 +1,155 @@
+package modernJava;
+
+/**
+ * 루프를 4개의 누산기로 펼친 스칼라 커널, 누산기끼리 의존성이 없으므로 CPU가 여러 덧셈을 동시에 실행할 수 있다.
+ */
+final class ScalarLeafKernel implements LeafKernel {
+    static final ScalarLeafKernel INSTANCE = new ScalarLeafKernel();
+
+    private ScalarLeafKernel() {
+    }
+
+    @Override
+    public long sum(long[] array, int from, int to) {
+        long a0 = 0, a1 = 0, a2 = 0, a3 = 0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            a0 = a0 + array[i];
+            a1 = a1 + array[i + 1];
+            a2 = a2 + array[i + 2];
+            a3 = a3 + array[i + 3];
+        }
+        for (; i < to; i++) {
+            a0 = a0 + array[i];
+        }
+        return a0 + a1 + (a2 + a3);
+    }
+
+    @Override
+    public long min(long[] array, int from, int to) {
+        long a0 = Long.MAX_VALUE, a1 = Long.MAX_VALUE, a2 = Long.MAX_VALUE, a3 = Long.MAX_VALUE;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            a0 = Math.min(a0, array[i]);
+            a1 = Math.min(a1, array[i + 1]);
+            a2 = Math.min(a2, array[i + 2]);
+            a3 = Math.min(a3, array[i + 3]);
+        }
+        for (; i < to; i++) {
+            a0 = Math.min(a0, array[i]);
+        }
+        return Math.min(Math.min(a0, a1), Math.min(a2, a3));
+    }
+
+    @Override
+    public long max(long[] array, int from, int to) {
+        long a0 = Long.MIN_VALUE, a1 = Long.MIN_VALUE, a2 = Long.MIN_VALUE, a3 = Long.MIN_VALUE;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            a0 = Math.max(a0, array[i]);
+            a1 = Math.max(a1, array[i + 1]);
+            a2 = Math.max(a2, array[i + 2]);
+            a3 = Math.max(a3, array[i + 3]);
+        }
+        for (; i < to; i++) {
+            a0 = Math.max(a0, array[i]);
+        }
+        return Math.max(Math.max(a0, a1), Math.max(a2, a3));
+    }
+
+    @Override
+    public int sum(int[] array, int from, int to) {
+        int a0 = 0, a1 = 0, a2 = 0, a3 = 0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            a0 = a0 + array[i];
+            a1 = a1 + array[i + 1];
+            a2 = a2 + array[i + 2];
+            a3 = a3 + array[i + 3];
+        }
+        for (; i < to; i++) {
+            a0 = a0 + array[i];
+        }
+        return a0 + a1 + (a2 + a3);
+    }
+
+    @Override
+    public int min(int[] array, int from, int to) {
+        int a0 = Integer.MAX_VALUE, a1 = Integer.MAX_VALUE, a2 = Integer.MAX_VALUE, a3 = Integer.MAX_VALUE;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            a0 = Math.min(a0, array[i]);
+            a1 = Math.min(a1, array[i + 1]);
+            a2 = Math.min(a2, array[i + 2]);
+            a3 = Math.min(a3, array[i + 3]);
+        }
+        for (; i < to; i++) {
+            a0 = Math.min(a0, array[i]);
+        }
+        return Math.min(Math.min(a0, a1), Math.min(a2, a3));
+    }
+
+    @Override
+    public int max(int[] array, int from, int to) {
+        int a0 = Integer.MIN_VALUE, a1 = Integer.MIN_VALUE, a2 = Integer.MIN_VALUE, a3 = Integer.MIN_VALUE;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            a0 = Math.max(a0, array[i]);
+            a1 = Math.max(a1, array[i + 1]);
+            a2 = Math.max(a2, array[i + 2]);
+            a3 = Math.max(a3, array[i + 3]);
+        }
+        for (; i < to; i++) {
+            a0 = Math.max(a0, array[i]);
+        }
+        return Math.max(Math.max(a0, a1), Math.max(a2, a3));
+    }
+
+    @Override
+    public double sum(double[] array, int from, int to) {
+        double a0 = 0, a1 = 0, a2 = 0, a3 = 0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            a0 = a0 + array[i];
+            a1 = a1 + array[i + 1];
+            a2 = a2 + array[i + 2];
+            a3 = a3 + array[i + 3];
+        }
+        for (; i < to; i++) {
+            a0 = a0 + array[i];
+        }
+        return a0 + a1 + (a2 + a3);
+    }
+
+    @Override
+    public double min(double[] array, int from, int to) {
+        double a0 = Double.POSITIVE_INFINITY, a1 = Double.POSITIVE_INFINITY, a2 = Double.POSITIVE_INFINITY, a3 = Double.POSITIVE_INFINITY;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            a0 = Math.min(a0, array[i]);
+            a1 = Math.min(a1, array[i + 1]);
+            a2 = Math.min(a2, array[i + 2]);
+            a3 = Math.min(a3, array[i + 3]);
+        }
+        for (; i < to; i++) {
+            a0 = Math.min(a0, array[i]);
+        }
+        return Math.min(Math.min(a0, a1), Math.min(a2, a3));
+    }
+
+    @Override
+    public double max(double[] array, int from, int to) {
+        double a0 = Double.NEGATIVE_INFINITY, a1 = Double.NEGATIVE_INFINITY, a2 = Double.NEGATIVE_INFINITY, a3 = Double.NEGATIVE_INFINITY;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            a0 = Math.max(a0, array[i]);
+            a1 = Math.max(a1, array[i + 1]);
+            a2 = Math.max(a2, array[i + 2]);
+            a3 = Math.max(a3, array[i + 3]);
+        }
+        for (; i < to; i++) {
+            a0 = Math.max(a0, array[i]);
+        }
+        return Math.max(Math.max(a0, a1), Math.max(a2, a3));
+    }
+}
@@ -1,14 +1,38 @@
 package modernJava;
 
+import modernJava.counter.CounterType;
+import modernJava.counter.LongCounter;
+
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
+/**
+ * synchronized 블록과 synchronized 메서드로 카운터를 보호하는 예제
+ * 블록은 주어진 monitor를, 메서드는 this를 락으로 사용한다.
+ * {@link #increment()}는 {@link CounterType#SYNCHRONIZED}이면 두 메서드를 그대로 호출하고
+ * 다른 타입이면 락 없이 해당 {@link LongCounter}로 세어서 같은 작업을 동기화 방식별로 비교할 수 있게 한다.
+ */
 public class SynchronizedClass {
     private final Object monitor;
     int blockCount = 0;
     int methodCount = 0;
+    // SYNCHRONIZED이면 null, 위의 synchronized 블록과 메서드로 센다.
+    private final LongCounter blockCounter;
+    private final LongCounter methodCounter;
+
     SynchronizedClass(Object monitor) {
+        this(monitor, CounterType.SYNCHRONIZED);
+    }
+
+    public SynchronizedClass(Object monitor, CounterType type) {
         this.monitor = monitor;
+        if (type == CounterType.SYNCHRONIZED) {
+            this.blockCounter = null;
+            this.methodCounter = null;
+        } else {
+            this.blockCounter = type.newCounter();
+            this.methodCounter = type.newCounter();
+        }
     }
 
     public void synchronizedBlock() {
@@ -21,6 +45,33 @@ public class SynchronizedClass {
         methodCount++;
     }
 
+    public void increment() {
+        if (blockCounter == null) {
+            synchronizedBlock();
+            synchronizedMethod();
+        } else {
+            blockCounter.increment();
+            methodCounter.increment();
+        }
+    }
+
+    public long blockCount() {
+        if (blockCounter != null) {
+            return blockCounter.sum();
+        }
+        synchronized (monitor) {
+            return blockCount;
+        }
+    }
+
+    public long methodCount() {
+        if (methodCounter != null) {
+            return methodCounter.sum();
+        }
+        synchronized (this) {
+            return methodCount;
+        }
+    }
 
     public static void main(String[] args) {
         ExecutorService executor = Executors.newFixedThreadPool(3);
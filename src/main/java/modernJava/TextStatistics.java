@@ -0,0 +1,212 @@
+package modernJava;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 텍스트를 한 번만 탐색해서 토큰 빈도(top-K), 서로 다른 토큰 수, 줄 단위 통계를 함께 계산한다.
+ * {@link WordCounter}가 공백 기준 단어 수만 세는 것과 달리 토큰은 연속된 문자와 숫자이며({@link TextTokenizer}),
+ * 토큰마다 String을 만들지 않고 원본의 위치로 빈도를 센다.
+ *
+ * 텍스트는 줄바꿈에서 나눠 공용 ForkJoinPool에서 병렬로 탐색한다. 워커 스레드마다 빈도 테이블과 통계를 하나씩 두고
+ * 그 스레드가 처리한 모든 구간을 누적한 뒤, 탐색이 끝나면 스레드 수만큼의 테이블만 합친다.
+ */
+public final class TextStatistics {
+    // 구간을 너무 잘게 나누면 태스크를 만드는 비용이 더 커지므로 적응형 한계값의 최솟값을 둔다.
+    private static final int MIN_SPLIT_SIZE = 1 << 16;
+
+    private final Partial total;
+
+    private TextStatistics(Partial total) {
+        this.total = total;
+    }
+
+    public static TextStatistics of(CharSequence text) {
+        return of(text, false);
+    }
+
+    /**
+     * @param ignoreCase 대소문자를 구분하지 않고 센다. top-K의 토큰은 소문자로 반환한다.
+     */
+    public static TextStatistics of(CharSequence text, boolean ignoreCase) {
+        Map<Thread, Partial> partials = new ConcurrentHashMap<>();
+        int threshold = Math.max(MIN_SPLIT_SIZE, text.length() / (ForkJoinPool.getCommonPoolParallelism() * 4));
+        ForkJoinPool.commonPool().invoke(new LinesTask(text, ignoreCase, 0, text.length(), threshold, partials));
+
+        Partial total = new Partial(text, ignoreCase);
+        partials.values().forEach(total::merge);
+        return new TextStatistics(total);
+    }
+
+    /**
+     * 전체 토큰 수
+     */
+    public long tokens() {
+        return total.tokens;
+    }
+
+    /**
+     * 서로 다른 토큰의 정확한 수
+     */
+    public int distinctTokens() {
+        return total.table.size();
+    }
+
+    /**
+     * {@link HyperLogLog}로 추정한 서로 다른 토큰의 수, 표준 오차는 약 0.8%다. 오차의 상한이 아니므로 이보다 크게 벗어날 수도 있다.
+     */
+    public long estimatedDistinctTokens() {
+        return total.distinct.estimate();
+    }
+
+    /**
+     * 빈도가 높은 순서로 최대 k개의 토큰
+     */
+    public List<WordFrequency> topK(int k) {
+        return total.table.top(k);
+    }
+
+    /**
+     * '\n'으로 나눈 줄의 수, 텍스트가 줄바꿈으로 끝나면 마지막 빈 줄은 세지 않는다.
+     */
+    public long lines() {
+        return total.lines;
+    }
+
+    /**
+     * 토큰이 하나도 없는 줄의 수
+     */
+    public long emptyLines() {
+        return total.emptyLines;
+    }
+
+    public int maxTokensPerLine() {
+        return total.maxTokensPerLine;
+    }
+
+    /**
+     * 가장 긴 줄의 문자 수, 줄바꿈 문자는 제외한다.
+     */
+    public int longestLine() {
+        return total.longestLine;
+    }
+
+    public double averageTokensPerLine() {
+        return total.lines == 0 ? 0 : (double) total.tokens / total.lines;
+    }
+
+    public record WordFrequency(String word, long count) {
+    }
+
+    /**
+     * 스레드 하나가 탐색한 구간들의 통계
+     */
+    private static final class Partial implements TextTokenizer.TokenSink {
+        private final CharSequence text;
+        private final TokenFrequencyTable table;
+        private final HyperLogLog distinct = new HyperLogLog();
+        private long tokens;
+        private long lines;
+        private long emptyLines;
+        private int maxTokensPerLine;
+        private int longestLine;
+        private int lineTokens;
+
+        Partial(CharSequence text, boolean ignoreCase) {
+            this.text = text;
+            this.table = new TokenFrequencyTable(text, ignoreCase);
+        }
+
+        @Override
+        public void token(int start, int end) {
+            long hash = table.hash(start, end);
+            table.add(start, end, hash);
+            distinct.add(hash);
+            lineTokens++;
+        }
+
+        /**
+         * text[start, end)가 한 줄이다.
+         */
+        void line(int start, int end) {
+            lineTokens = 0;
+            TextTokenizer.forEachToken(text, start, end, this);
+            lines++;
+            tokens += lineTokens;
+            if (lineTokens == 0) {
+                emptyLines++;
+            }
+            maxTokensPerLine = Math.max(maxTokensPerLine, lineTokens);
+            longestLine = Math.max(longestLine, end - start);
+        }
+
+        void merge(Partial other) {
+            table.merge(other.table);
+            distinct.merge(other.distinct);
+            tokens += other.tokens;
+            lines += other.lines;
+            emptyLines += other.emptyLines;
+            maxTokensPerLine = Math.max(maxTokensPerLine, other.maxTokensPerLine);
+            longestLine = Math.max(longestLine, other.longestLine);
+        }
+    }
+
+    /**
+     * text[from, to)를 줄바꿈에서 나눠 탐색한다. from은 항상 줄의 시작이다.
+     */
+    private static final class LinesTask extends RecursiveAction {
+        private final CharSequence text;
+        private final boolean ignoreCase;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final Map<Thread, Partial> partials;
+
+        LinesTask(CharSequence text, boolean ignoreCase, int from, int to, int threshold, Map<Thread, Partial> partials) {
+            this.text = text;
+            this.ignoreCase = ignoreCase;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.partials = partials;
+        }
+
+        @Override
+        protected void compute() {
+            int split = to - from > threshold ? nextLineStart(from + (to - from) / 2) : to;
+            if (split >= to) {
+                // 한 구간은 한 스레드에서 끝까지 처리하므로 스레드의 통계에 동기화 없이 누적한다.
+                Partial partial = partials.computeIfAbsent(Thread.currentThread(), t -> new Partial(text, ignoreCase));
+                scan(partial);
+                return;
+            }
+            invokeAll(new LinesTask(text, ignoreCase, from, split, threshold, partials),
+                    new LinesTask(text, ignoreCase, split, to, threshold, partials));
+        }
+
+        private int nextLineStart(int position) {
+            for (int i = position; i < to; i++) {
+                if (text.charAt(i) == '\n') {
+                    return i + 1;
+                }
+            }
+            return to;
+        }
+
+        private void scan(Partial partial) {
+            int lineStart = from;
+            for (int i = from; i < to; i++) {
+                if (text.charAt(i) == '\n') {
+                    partial.line(lineStart, i);
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart < to) {
+                partial.line(lineStart, to);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package modernJava;
+
+/**
+ * 문자열에서 토큰(연속된 문자와 숫자)의 경계만 찾아서 전달한다. 토큰마다 String을 만들지 않는다.
+ */
+public final class TextTokenizer {
+    // ASCII 문자는 표에서 바로 찾는다.
+    private static final boolean[] ASCII_TOKEN = new boolean[128];
+
+    static {
+        for (char c = 0; c < ASCII_TOKEN.length; c++) {
+            ASCII_TOKEN[c] = Character.isLetterOrDigit(c);
+        }
+    }
+
+    private TextTokenizer() {
+    }
+
+    /**
+     * 토큰의 경계를 받는다. 토큰은 text[start, end)다.
+     */
+    @FunctionalInterface
+    public interface TokenSink {
+        void token(int start, int end);
+    }
+
+    static boolean isTokenChar(char c) {
+        return c < 128 ? ASCII_TOKEN[c] : Character.isLetterOrDigit(c);
+    }
+
+    /**
+     * text[from, to) 구간의 토큰 경계를 순서대로 sink에 전달한다.
+     */
+    public static void forEachToken(CharSequence text, int from, int to, TokenSink sink) {
+        int start = -1;
+        for (int i = from; i < to; i++) {
+            if (isTokenChar(text.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                sink.token(start, i);
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            sink.token(start, to);
+        }
+    }
+}
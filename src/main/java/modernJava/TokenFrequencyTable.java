@@ -0,0 +1,148 @@
+package modernJava;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 토큰별 빈도를 세는 오픈 어드레싱 해시 테이블
+ * 키로 String 대신 원본 문자열의 (시작 위치, 길이)를 저장하고, 같은 토큰인지는 원본의 문자를 직접 비교한다.
+ * 같은 원본에서 만든 테이블끼리는 merge로 합칠 수 있다.
+ */
+final class TokenFrequencyTable {
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private final CharSequence text;
+    private final boolean ignoreCase;
+    private int[] starts;
+    private int[] lengths;
+    private long[] hashes;
+    private long[] counts;
+    private int mask;
+    private int size;
+
+    TokenFrequencyTable(CharSequence text, boolean ignoreCase) {
+        this.text = text;
+        this.ignoreCase = ignoreCase;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        starts = new int[capacity];
+        lengths = new int[capacity];
+        hashes = new long[capacity];
+        counts = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private char charAt(int i) {
+        char c = text.charAt(i);
+        return ignoreCase ? Character.toLowerCase(c) : c;
+    }
+
+    /**
+     * text[start, end)의 64비트 해시, FNV-1a로 누적한 뒤 비트를 섞어서 HyperLogLog에도 그대로 사용한다.
+     */
+    long hash(int start, int end) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            h = (h ^ charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ h >>> 33;
+    }
+
+    void add(int start, int end, long hash) {
+        add(start, end - start, hash, 1);
+    }
+
+    private void add(int start, int length, long hash, long count) {
+        int i = (int) hash & mask;
+        while (counts[i] != 0) {
+            if (hashes[i] == hash && lengths[i] == length && sameToken(starts[i], start, length)) {
+                counts[i] += count;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        starts[i] = start;
+        lengths[i] = length;
+        hashes[i] = hash;
+        counts[i] = count;
+        if (++size > (mask + 1) >>> 1) {
+            resize();
+        }
+    }
+
+    private boolean sameToken(int a, int b, int length) {
+        for (int i = 0; i < length; i++) {
+            if (charAt(a + i) != charAt(b + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void resize() {
+        int[] oldStarts = starts;
+        int[] oldLengths = lengths;
+        long[] oldHashes = hashes;
+        long[] oldCounts = counts;
+        allocate((mask + 1) << 1);
+        size = 0;
+        for (int i = 0; i < oldCounts.length; i++) {
+            if (oldCounts[i] != 0) {
+                add(oldStarts[i], oldLengths[i], oldHashes[i], oldCounts[i]);
+            }
+        }
+    }
+
+    void merge(TokenFrequencyTable other) {
+        for (int i = 0; i < other.counts.length; i++) {
+            if (other.counts[i] != 0) {
+                add(other.starts[i], other.lengths[i], other.hashes[i], other.counts[i]);
+            }
+        }
+    }
+
+    private String token(int slot) {
+        StringBuilder sb = new StringBuilder(lengths[slot]);
+        for (int i = starts[slot]; i < starts[slot] + lengths[slot]; i++) {
+            sb.append(charAt(i));
+        }
+        return sb.toString();
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 빈도가 높은 k개의 토큰, 크기 k의 최소 힙으로 고르므로 String은 결과에 들어가는 토큰만 만든다.
+     */
+    List<TextStatistics.WordFrequency> top(int k) {
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Comparator.comparingLong((Integer slot) -> counts[slot]));
+        for (int i = 0; i < counts.length && k > 0; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            if (heap.size() < k) {
+                heap.add(i);
+            } else if (counts[i] > counts[heap.peek()]) {
+                heap.poll();
+                heap.add(i);
+            }
+        }
+        List<TextStatistics.WordFrequency> top = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            int slot = heap.poll();
+            top.add(new TextStatistics.WordFrequency(token(slot), counts[slot]));
+        }
+        top.sort(Comparator.comparingLong(TextStatistics.WordFrequency::count).reversed());
+        return top;
+    }
+}
@@ -0,0 +1,140 @@
+package modernJava;
+
+import java.util.stream.IntStream;
+
+/**
+ * char[]나 CharSequence의 구간을 박싱 없이 직접 탐색해서 단어 수를 계산한다.
+ * {@link WordCounter}는 상태가 바뀔 때마다 새 객체를 만들고 {@link WordCounterSpliterator}는 문자마다 Character로 박싱하지만,
+ * 여기서는 "단어 안에 있는지"를 int 하나로 두고 문자마다 분기 없이 갱신하므로 탐색하는 동안 할당이 없다.
+ *
+ * 병렬로 계산할 때는 구간마다 {@link #segment}로 결과를 long 하나에 담고 {@link #combine}으로 합친다.
+ * WordCounter는 공백에서 분할해야 정확하지만, 구간 결과는 구간이 단어로 시작하는지와 끝나는지를 함께 기억하므로
+ * 단어 중간에서 나누어도 같은 결과를 낸다.
+ * 공백은 {@link Character#isWhitespace(char)}로 판단한다.
+ */
+public final class WordCountEngine {
+    // 구간 결과의 하위 비트 플래그, 상위 32비트는 단어 수
+    private static final long STARTS_IN_WORD = 1;
+    private static final long ENDS_IN_WORD = 1 << 1;
+    private static final long NOT_EMPTY = 1 << 2;
+    /**
+     * 빈 구간의 결과, combine의 항등원
+     */
+    public static final long EMPTY = 0;
+
+    // ASCII 문자는 표에서 바로 찾는다. 공백이면 0, 단어를 이루는 문자면 1
+    private static final byte[] ASCII_WORD = new byte[128];
+
+    static {
+        for (char c = 0; c < ASCII_WORD.length; c++) {
+            ASCII_WORD[c] = (byte) (Character.isWhitespace(c) ? 0 : 1);
+        }
+    }
+
+    private WordCountEngine() {
+    }
+
+    /**
+     * 공백이면 0, 아니면 1
+     */
+    static int wordChar(char c) {
+        return c < 128 ? ASCII_WORD[c] : Character.isWhitespace(c) ? 0 : 1;
+    }
+
+    public static int count(char[] chars) {
+        return count(chars, 0, chars.length);
+    }
+
+    /**
+     * chars[from, to) 구간의 단어 수
+     */
+    public static int count(char[] chars, int from, int to) {
+        int counter = 0;
+        int inWord = 0;
+        for (int i = from; i < to; i++) {
+            int word = wordChar(chars[i]);
+            // 공백 다음에 단어 문자가 오면 새 단어가 시작된다.
+            counter += word & ~inWord;
+            inWord = word;
+        }
+        return counter;
+    }
+
+    public static int count(CharSequence s) {
+        return count(s, 0, s.length());
+    }
+
+    /**
+     * s[from, to) 구간의 단어 수
+     */
+    public static int count(CharSequence s, int from, int to) {
+        int counter = 0;
+        int inWord = 0;
+        for (int i = from; i < to; i++) {
+            int word = wordChar(s.charAt(i));
+            counter += word & ~inWord;
+            inWord = word;
+        }
+        return counter;
+    }
+
+    /**
+     * chars[from, to) 구간의 결과를 long 하나에 담는다. 단어 수와 함께 구간의 첫 문자와 마지막 문자가 단어 문자인지 기억한다.
+     */
+    public static long segment(char[] chars, int from, int to) {
+        if (from >= to) {
+            return EMPTY;
+        }
+        return pack(count(chars, from, to), wordChar(chars[from]), wordChar(chars[to - 1]));
+    }
+
+    /**
+     * s[from, to) 구간의 결과를 long 하나에 담는다.
+     */
+    public static long segment(CharSequence s, int from, int to) {
+        if (from >= to) {
+            return EMPTY;
+        }
+        return pack(count(s, from, to), wordChar(s.charAt(from)), wordChar(s.charAt(to - 1)));
+    }
+
+    private static long pack(int counter, int startsInWord, int endsInWord) {
+        return (long) counter << 32 | NOT_EMPTY | (endsInWord == 1 ? ENDS_IN_WORD : 0) | (startsInWord == 1 ? STARTS_IN_WORD : 0);
+    }
+
+    /**
+     * 원본에서 이어지는 두 구간의 결과를 합친다. 왼쪽 구간이 단어 중간에서 끝나고 오른쪽 구간이 단어 문자로 시작하면
+     * 같은 단어를 두 번 센 것이므로 하나를 뺀다. 결합 법칙이 성립하므로 리듀싱에 사용할 수 있다.
+     */
+    public static long combine(long left, long right) {
+        if ((left & NOT_EMPTY) == 0) {
+            return right;
+        }
+        if ((right & NOT_EMPTY) == 0) {
+            return left;
+        }
+        int counter = words(left) + words(right) - ((left & ENDS_IN_WORD) != 0 && (right & STARTS_IN_WORD) != 0 ? 1 : 0);
+        return (long) counter << 32 | NOT_EMPTY | (right & ENDS_IN_WORD) | (left & STARTS_IN_WORD);
+    }
+
+    /**
+     * 구간 결과에 담긴 단어 수
+     */
+    public static int words(long segment) {
+        return (int) (segment >>> 32);
+    }
+
+    /**
+     * 배열을 구간 단위로 나눠 병렬로 센다. 구간의 경계가 단어 중간이어도 combine이 보정한다.
+     */
+    public static int countParallel(char[] chars, int segmentSize) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("segmentSize must be positive: " + segmentSize);
+        }
+        int segments = (int) ((chars.length + (long) segmentSize - 1) / segmentSize);
+        return words(IntStream.range(0, segments)
+                .parallel()
+                .mapToLong(i -> segment(chars, (int) ((long) i * segmentSize), (int) Math.min(chars.length, (long) (i + 1) * segmentSize)))
+                .reduce(EMPTY, WordCountEngine::combine));
+    }
+}
@@ -3,11 +3,12 @@ package modernJava;
 /**
  * 스트림에 리듀싱을 실행하면서 단어 수를 계산할 수 있다.
  * 지금까지 발견한 단어 수를 계산하는 counter와 마지막 문자가 공백이였는지 여부를 기억하는 lastSpace 변수가 있다.
+ * 수 GB 파일의 단어 수는 int를 넘을 수 있으므로 counter는 long으로 센다.
  */
 public class WordCounter {
-    private final int counter;
+    private final long counter;
     private final boolean lastSpace;
-    public WordCounter(int counter, boolean lastSpace) {
+    public WordCounter(long counter, boolean lastSpace) {
         this.counter = counter;
         this.lastSpace = lastSpace;
     }
@@ -30,12 +31,19 @@ public class WordCounter {
      */
     public WordCounter combine(WordCounter wordCounter) {
         return new WordCounter(
-                counter + wordCounter.counter,
+                Math.addExact(counter, wordCounter.counter),
                 wordCounter.lastSpace
         );
     }
 
+    /**
+     * 단어 수가 int 범위를 넘으면 잘못된 값을 반환하지 않고 ArithmeticException을 던진다. 큰 파일은 {@link #getLongCounter()}를 사용한다.
+     */
     public int getCounter() {
+        return Math.toIntExact(this.counter);
+    }
+
+    public long getLongCounter() {
         return this.counter;
     }
 }
@@ -1,50 +1,97 @@
 package modernJava;
 
 import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 
+/**
+ * 공유하는 CharSequence의 [currentIndex, end) 구간을 탐색하는 Spliterator
+ * 분할할 때 문자열을 복사하지 않고 구간의 경계만 나누므로, 분할 횟수와 관계없이 원본 문자열 하나만 사용한다.
+ */
 public class WordCounterSpliterator implements Spliterator<Character> {
-    private final String string;
-    private int currentIndex = 0;
+    // 구간을 너무 잘게 나누면 태스크를 만들고 합치는 비용이 더 커지므로 적응형 한계값의 최솟값을 둔다.
+    private static final int MIN_THRESHOLD = 1_024;
 
-    public WordCounterSpliterator(String string) {
+    private final CharSequence string;
+    private final int end;
+    private final int threshold;
+    private int currentIndex;
+
+    /**
+     * 분할 한계값은 문자열 길이와 공용 ForkJoinPool의 병렬도로 정한다. 스레드마다 4개 정도의 구간이 돌아가도록 나눈다.
+     */
+    public WordCounterSpliterator(CharSequence string) {
+        this(string, adaptiveThreshold(string.length()));
+    }
+
+    /**
+     * @param threshold 이 길이보다 짧은 구간은 더 분할하지 않는다.
+     */
+    public WordCounterSpliterator(CharSequence string, int threshold) {
+        this(string, 0, string.length(), threshold);
+    }
+
+    private WordCounterSpliterator(CharSequence string, int currentIndex, int end, int threshold) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("threshold must be positive: " + threshold);
+        }
         this.string = string;
+        this.currentIndex = currentIndex;
+        this.end = end;
+        this.threshold = threshold;
+    }
+
+    private static int adaptiveThreshold(int length) {
+        return Math.max(MIN_THRESHOLD, length / (ForkJoinPool.getCommonPoolParallelism() * 4));
     }
 
     /**
      * 문자열에서 현재 인덱스에 해당하는 문자를 Consumer에 제공한 다음에 인덱스를 증가시킨다.
      * 인수로 전달된 Consumer는 스트림을 탐색하면서 적용해야 하는 함수 집합이 작업을 처리할 수 있도록 소비한 문자를 전달하는 자바 내부 클래스다.
      * 여기에서는 스트림을 탐색하면서 하나의 리듀싱 함수, 즉 WordCounter.accumulate 메서드만 적용한다.
-     * 새로운 커서 위치가 전체 문자열 길이보다 작으면 참을 반환하며 반복 탐색해야 할 문자가 남아있음을 의미한다.
+     * 문자를 소비했으면 참을, 구간이 이미 끝나서 소비할 문자가 없으면 거짓을 반환한다.
      */
     @Override
     public boolean tryAdvance(Consumer<? super Character> action) {
+        if (currentIndex >= end) {
+            return false;
+        }
         action.accept(string.charAt(currentIndex++));    // 현재 문자를 소비
-        return currentIndex < string.length();           // 소비할 문자가 남아있으면 true를 리턴
+        return true;
+    }
+
+    /**
+     * 남은 문자를 한 번에 순회한다. tryAdvance를 반복 호출하는 기본 구현보다 호출과 경계 확인이 적다.
+     */
+    @Override
+    public void forEachRemaining(Consumer<? super Character> action) {
+        CharSequence s = string;
+        int i = currentIndex;
+        int hi = end;
+        currentIndex = hi;
+        for (; i < hi; i++) {
+            action.accept(s.charAt(i));
+        }
     }
 
     /**
      * 반복될 자료구조를 분할하는 로직을 포함하므로 가장 중요한 메서드다.
      * RecursiveTask.compute 메서드 에서 했던 것 처럼 우선 분할 동작을 중단할 한계를 설정해야 한다.
-     * 여기서는 10개의 문자를 사용했지만 실전에서는 너무 많은 태스크를 만들지 않도록 더 높은 한계값을 사용해야 할 것이다.
-     * 분할이 필요한 상황에서는 파싱해야 할 문자열 청크의 중간 위치를 기준으로 분할하도록 지시한다.
+     * 분할이 필요한 상황에서는 파싱해야 할 문자열 구간의 중간 위치를 기준으로 분할하도록 지시한다.
      * 이때 단어 중간을 분할하지 않도록 빈 문자가 나올때까지 분할 위치를 이동시킨다.
-     * 분할할 위치를 찾았으면 새로운 Spliterator를 만든다.
-     * 새로 만든 Spliterator는 현재 위치 currentIndex 부터 분할된 위치까지의 문자를 탐색한다.
+     * 분할할 위치를 찾았으면 같은 문자열의 현재 위치 currentIndex 부터 분할된 위치까지를 탐색하는 새로운 Spliterator를 만든다.
      */
     @Override
     public Spliterator<Character> trySplit() {
-        int currentSize = string.length() - currentIndex;
-        System.out.printf("string.length : %d , currentIndex : %d\n", string.length(), currentIndex);
-        if (currentSize < 10) {
+        int currentSize = end - currentIndex;
+        if (currentSize < threshold) {
             return null;    // 파싱할 문자열을 순차 처리할 수 있을 만큼 충분히 작아졌음을 알리는 null을 반환
         }
-        for (int splitPos = currentSize / 2 + currentIndex;
-             splitPos < string.length() ; splitPos++) {     // 분할 시작 위치를 중간으로 지정
+        for (int splitPos = currentSize / 2 + currentIndex; splitPos < end; splitPos++) {     // 분할 시작 위치를 중간으로 지정
             if (Character.isWhitespace(string.charAt(splitPos))) {      // 다음 공백이 나올때까지 분할 위치를 뒤로 이동
-                // 처음부터 분할 위치까지 문자열을 파싱할 새로운 WordCountSpliterator 를 생성
+                // 처음부터 분할 위치까지를 파싱할 새로운 WordCountSpliterator 를 생성, 문자열은 복사하지 않는다.
                 Spliterator<Character> spliterator =
-                        new WordCounterSpliterator(string.substring(currentIndex, splitPos));
+                        new WordCounterSpliterator(string, currentIndex, splitPos, threshold);
 
                 currentIndex = splitPos; // 시작 위치를 분할 위치로 설정
                 return spliterator;     // 공백을 찾았고 문자열을 분리했으므로 루프를 종료
@@ -54,11 +101,11 @@ public class WordCounterSpliterator implements Spliterator<Character> {
     }
 
     /**
-     * Spliterator가 파싱할 문자열 전체 길이와 현재 반복 중인 위치의 차이다.
+     * Spliterator가 파싱할 구간의 끝과 현재 반복 중인 위치의 차이다.
      */
     @Override
     public long estimateSize() {
-        return string.length() - currentIndex;
+        return end - currentIndex;
     }
 
     @Override
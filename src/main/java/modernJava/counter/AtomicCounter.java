@@ -0,0 +1,17 @@
+package modernJava.counter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+final class AtomicCounter implements LongCounter {
+    private final AtomicLong count = new AtomicLong();
+
+    @Override
+    public void add(long x) {
+        count.addAndGet(x);
+    }
+
+    @Override
+    public long sum() {
+        return count.get();
+    }
+}
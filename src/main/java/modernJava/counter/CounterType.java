@@ -0,0 +1,37 @@
+package modernJava.counter;
+
+/**
+ * {@link LongCounter} 구현, 경합이 심할수록 아래쪽 구현이 유리하다.
+ */
+public enum CounterType {
+    /**
+     * volatile 필드에 ++, 읽고 쓰는 사이에 다른 스레드의 증가가 끼어들면 그 증가는 유실된다. 비교용으로만 사용한다.
+     */
+    RACY,
+    /**
+     * 모니터 락으로 모든 증가를 직렬화한다.
+     */
+    SYNCHRONIZED,
+    /**
+     * 하나의 AtomicLong을 원자적으로 증가시킨다. 유실은 없지만 모든 스레드가 같은 캐시 라인을 두고 경쟁한다.
+     */
+    ATOMIC,
+    /**
+     * LongAdder로 경합이 생기면 스레드들을 캐시 라인이 분리된 여러 셀에 나누어 더한다.
+     */
+    STRIPED,
+    /**
+     * 스레드마다 따로 세다가 일정 횟수마다 공유 카운터에 반영한다. 증가는 가장 싸지만 sum은 모든 스레드의 값을 모아야 한다.
+     */
+    PER_THREAD;
+
+    public LongCounter newCounter() {
+        return switch (this) {
+            case RACY -> new RacyCounter();
+            case SYNCHRONIZED -> new SynchronizedCounter(new Object());
+            case ATOMIC -> new AtomicCounter();
+            case STRIPED -> new StripedCounter();
+            case PER_THREAD -> new PerThreadCounter(PerThreadCounter.DEFAULT_FLUSH_INTERVAL);
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package modernJava.counter;
+
+/**
+ * 여러 스레드가 동시에 증가시키는 long 카운터, 구현은 {@link CounterType}으로 고른다.
+ */
+public interface LongCounter {
+
+    default void increment() {
+        add(1);
+    }
+
+    void add(long x);
+
+    /**
+     * 현재까지 더한 값, 다른 스레드가 더하는 중에 읽으면 그 순간의 정확한 값이 아닐 수 있다.
+     * 모든 스레드가 add를 마친 뒤에 읽으면 정확한 값이다({@link CounterType#RACY} 제외).
+     */
+    long sum();
+}
@@ -0,0 +1,115 @@
+package modernJava.counter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 스레드마다 자기 슬롯에만 더하다가 flushInterval번 더할 때마다 공유 카운터에 반영한다.
+ * 슬롯은 소유 스레드만 쓰므로 증가에 CAS도 메모리 펜스도 없다(release 쓰기).
+ * 아직 반영하지 않은 값도 sum이 슬롯을 모두 읽어서 더하므로 flush 전에 스레드가 끝나도 유실되지 않는다.
+ * 끝난 스레드의 슬롯은 sum이 공유 카운터로 옮기고 목록에서 지운다. 슬롯은 스레드를 약하게 참조하므로
+ * sum이 호출되지 않아도 끝난 스레드는 수거된다.
+ */
+public final class PerThreadCounter implements LongCounter {
+    public static final int DEFAULT_FLUSH_INTERVAL = 1024;
+
+    private final int flushInterval;
+    private final AtomicLong flushed = new AtomicLong();
+    private final ConcurrentLinkedQueue<Slot> slots = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Slot> local = ThreadLocal.withInitial(this::register);
+
+    public PerThreadCounter(int flushInterval) {
+        if (flushInterval <= 0) {
+            throw new IllegalArgumentException("flushInterval must be positive: " + flushInterval);
+        }
+        this.flushInterval = flushInterval;
+    }
+
+    private Slot register() {
+        Slot slot = new Slot(Thread.currentThread());
+        slots.add(slot);
+        return slot;
+    }
+
+    @Override
+    public void add(long x) {
+        Slot slot = local.get();
+        long pending = slot.pending + x;
+        if (++slot.adds < flushInterval) {
+            Slot.PENDING.setRelease(slot, pending);
+            return;
+        }
+        slot.adds = 0;
+        // 슬롯을 먼저 비워야 sum이 같은 값을 슬롯과 공유 카운터에서 두 번 읽지 않는다.
+        Slot.PENDING.setRelease(slot, 0L);
+        flushed.addAndGet(pending);
+    }
+
+    /**
+     * 현재 스레드가 아직 반영하지 않은 값을 공유 카운터에 반영한다.
+     */
+    public void flush() {
+        Slot slot = local.get();
+        long pending = slot.pending;
+        slot.adds = 0;
+        Slot.PENDING.setRelease(slot, 0L);
+        flushed.addAndGet(pending);
+    }
+
+    /**
+     * 반영된 값만 읽는다. 스레드마다 최대 flushInterval - 1번의 증가가 빠질 수 있지만 슬롯을 순회하지 않는다.
+     */
+    public long flushedSum() {
+        return flushed.get();
+    }
+
+    /**
+     * 공유 카운터를 먼저 읽으므로 다른 스레드가 flush하는 중이면 그 값이 빠질 수는 있어도 두 번 더해지지는 않는다.
+     * 끝난 스레드의 슬롯을 옮기는 중인 값은 다른 sum이 슬롯과 공유 카운터 어느 쪽에서도 못 읽거나 양쪽에서 읽을 수 있으므로
+     * sum끼리는 직렬화한다. add는 기다리지 않는다.
+     */
+    @Override
+    public synchronized long sum() {
+        long sum = flushed.get();
+        for (Slot slot : slots) {
+            if (slot.isRetired() && slots.remove(slot)) {
+                // 소유 스레드가 끝났으므로 슬롯을 쓰는 스레드가 없다. 슬롯을 비우면서 읽어서 값을 한 번만 옮긴다.
+                long pending = (long) Slot.PENDING.getAndSet(slot, 0L);
+                flushed.addAndGet(pending);
+                sum += pending;
+                continue;
+            }
+            sum += (long) Slot.PENDING.getAcquire(slot);
+        }
+        return sum;
+    }
+
+    private static final class Slot {
+        private final WeakReference<Thread> owner;
+        // 소유 스레드만 쓰고 sum이 읽는다. 소유 스레드가 끝나면 sum이 비운다.
+        private long pending;
+        private int adds;
+
+        Slot(Thread owner) {
+            this.owner = new WeakReference<>(owner);
+        }
+
+        boolean isRetired() {
+            Thread thread = owner.get();
+            return thread == null || !thread.isAlive();
+        }
+
+        private static final VarHandle PENDING;
+
+        static {
+            try {
+                PENDING = MethodHandles.lookup().findVarHandle(Slot.class, "pending", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+    }
+}
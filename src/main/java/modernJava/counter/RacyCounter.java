@@ -0,0 +1,18 @@
+package modernJava.counter;
+
+/**
+ * volatile은 가시성만 보장하고 count++(읽기, 더하기, 쓰기)를 원자적으로 만들지 않는다.
+ */
+final class RacyCounter implements LongCounter {
+    private volatile long count;
+
+    @Override
+    public void add(long x) {
+        count += x;
+    }
+
+    @Override
+    public long sum() {
+        return count;
+    }
+}
@@ -0,0 +1,20 @@
+package modernJava.counter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 경합이 생기면 스레드들을 캐시 라인이 분리된 여러 셀에 나누어 더하고, sum은 모든 셀을 더한다.
+ */
+final class StripedCounter implements LongCounter {
+    private final LongAdder count = new LongAdder();
+
+    @Override
+    public void add(long x) {
+        count.add(x);
+    }
+
+    @Override
+    public long sum() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,27 @@
+package modernJava.counter;
+
+/**
+ * 주어진 모니터로 증가와 읽기를 직렬화한다. 모니터로 소유 객체를 넘기면 synchronized 메서드와 같은 락을 사용한다.
+ */
+public final class SynchronizedCounter implements LongCounter {
+    private final Object monitor;
+    private long count;
+
+    public SynchronizedCounter(Object monitor) {
+        this.monitor = monitor;
+    }
+
+    @Override
+    public void add(long x) {
+        synchronized (monitor) {
+            count += x;
+        }
+    }
+
+    @Override
+    public long sum() {
+        synchronized (monitor) {
+            return count;
+        }
+    }
+}
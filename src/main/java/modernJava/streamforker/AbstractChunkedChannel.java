@@ -0,0 +1,78 @@
+package modernJava.streamforker;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 생산자가 요소를 배열에 모아서 한 번에 큐에 넣는 채널의 공통 부분
+ * 버퍼 용량은 요소 수 기준이며 capacity / chunkSize개의 청크까지 쌓아둔다. DROP 정책은 청크 단위로 버린다.
+ * chunkSize가 capacity보다 크면 청크 하나가 용량을 넘으므로 청크 크기를 capacity로 줄인다.
+ * 큐에는 최대 capacity개가 쌓이고, 생산자마다 아직 큐에 넣지 않은 청크 하나(최대 청크 크기만큼)를 따로 모은다.
+ *
+ * @param <A> 요소를 모으는 배열, 참조 타입이면 Object[], 기본형이면 int[]처럼 기본형 배열
+ */
+abstract class AbstractChunkedChannel<T, A> extends BlockingQueueChannel<T, A> {
+    final int chunkSize;
+    private final A endOfStream;
+    private final AtomicInteger buffered = new AtomicInteger();
+    // 큐에 들어갈 수 있는 요소 수의 상한
+    private final long maxBuffered;
+
+    AbstractChunkedChannel(Object key, int capacity, int chunkSize, OverflowPolicy overflowPolicy, A endOfStream) {
+        super(key, new LinkedBlockingQueue<>(chunks(capacity, Math.min(chunkSize, capacity))), overflowPolicy);
+        this.chunkSize = Math.min(chunkSize, capacity);
+        this.endOfStream = endOfStream;
+        this.maxBuffered = (long) chunks(capacity, this.chunkSize) * this.chunkSize;
+    }
+
+    /**
+     * 청크에 담긴 요소의 수
+     */
+    abstract int length(A chunk);
+
+    @Override
+    A endOfStream() {
+        return endOfStream;
+    }
+
+    @Override
+    public boolean cancel() {
+        if (!super.cancel()) {
+            return false;
+        }
+        buffered.set(0);
+        return true;
+    }
+
+    /**
+     * 생산자가 채운 청크를 큐에 넣는다. 청크는 넣은 뒤로 소비자만 접근하므로 생산자는 새 배열에 모아야 한다.
+     */
+    void publish(A chunk) {
+        if (isCancelled()) {
+            return;
+        }
+        int length = length(chunk);
+        // 큐에 넣은 뒤에 더하므로 소비자가 먼저 빼면 잠깐 음수가, 소비자가 꺼낸 청크를 빼기 전이면 잠깐 상한보다 커질 수 있다.
+        if (enqueue(chunk, length)) {
+            metrics.depth(clamp(buffered.addAndGet(length)));
+        }
+    }
+
+    /**
+     * 다음 청크를 꺼낸다. 스트림의 끝을 만나면 null을 반환한다.
+     */
+    A nextChunk() {
+        A next = dequeue();
+        buffered.addAndGet(-length(next));
+        return next == endOfStream ? null : next;
+    }
+
+    @Override
+    public int depth() {
+        return isCancelled() ? 0 : clamp(buffered.get());
+    }
+
+    private int clamp(int depth) {
+        return (int) Math.max(0, Math.min(depth, maxBuffered));
+    }
+}
@@ -0,0 +1,197 @@
+package modernJava.streamforker;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BlockingQueue로 요소(또는 요소의 묶음)를 전달하는 채널의 공통 부분
+ * 병렬 모드에서는 여러 생산자가 동시에 넣으므로 dropped는 LongAdder로 센다.
+ *
+ * @param <E> 큐에 실제로 넣는 단위
+ */
+abstract class BlockingQueueChannel<T, E> implements ForkChannel<T> {
+    // 취소된 채널에서 대기 중인 스레드가 취소를 알아차리는 최대 간격
+    private static final long CANCEL_CHECK_MILLIS = 10;
+
+    private final Object key;
+    private final BlockingQueue<E> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final LongAdder dropped = new LongAdder();
+    final ForkMetrics metrics = new ForkMetrics();
+    private volatile boolean cancelled;
+
+    BlockingQueueChannel(Object key, BlockingQueue<E> queue, OverflowPolicy overflowPolicy) {
+        this.key = key;
+        this.queue = queue;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * 스트림의 끝을 알리는 요소
+     */
+    abstract E endOfStream();
+
+    /**
+     * elements개의 요소를 담은 e를 큐에 넣고, 큐가 가득 차면 넘침 정책을 따른다.
+     * 포크가 이미 끝났으면 아무것도 하지 않는다.
+     *
+     * @return 큐에 넣었으면 true, 버렸으면 false
+     */
+    boolean enqueue(E e, int elements) {
+        if (cancelled) {
+            return false;
+        }
+        if (queue.offer(e)) {
+            return true;
+        }
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                return put(e);
+            }
+            case DROP -> {
+                dropped.add(elements);
+                return false;
+            }
+            case FAIL -> throw new IllegalStateException(
+                    "fork '" + key + "' buffer is full (capacity: " + (queue.size() + queue.remainingCapacity()) + ")");
+        }
+        return true;
+    }
+
+    /**
+     * 넘침 정책과 관계없이 공간이 생길 때까지 대기한다. 스트림의 끝을 알리는 요소는 버려져서는 안 된다.
+     * 병렬 모드의 생산자는 ForkJoinPool에서 실행되므로 dequeue와 마찬가지로 ManagedBlocker로 대기한다.
+     *
+     * @return 큐에 넣었으면 true, 기다리는 동안 포크가 끝나서 넣지 않았으면 false
+     */
+    boolean put(E e) {
+        if (queue.offer(e)) {
+            return true;
+        }
+        QueuePutter putter = new QueuePutter(e);
+        try {
+            ForkJoinPool.managedBlock(putter);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        }
+        return putter.done;
+    }
+
+    /**
+     * 큐가 비어 있을 때만 블로킹한다. 포크 태스크는 공용 ForkJoinPool에서 실행되므로 ManagedBlocker로 대기해서
+     * 풀이 보상 스레드를 만들 수 있게 한다. 그렇지 않으면 포크 수가 병렬도보다 많을 때 아직 시작하지 못한 포크의
+     * 버퍼가 가득 차서 생산자와 나머지 포크가 모두 멈출 수 있다.
+     * 채널이 취소되면 스트림의 끝을 반환한다.
+     */
+    E dequeue() {
+        E e = queue.poll();
+        if (e != null) {
+            return e;
+        }
+        QueueTaker taker = new QueueTaker();
+        long start = System.nanoTime();
+        try {
+            while (true) {
+                try {
+                    ForkJoinPool.managedBlock(taker);
+                    return taker.item != null ? taker.item : endOfStream();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        } finally {
+            metrics.blockedNanos += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!cancelled) {
+            put(endOfStream());
+        }
+    }
+
+    /**
+     * 큐에 남은 요소를 버려서 메모리를 돌려주고, 큐가 가득 차서 대기하던 생산자를 깨운다.
+     */
+    @Override
+    public boolean cancel() {
+        if (cancelled) {
+            return false;
+        }
+        synchronized (this) {
+            if (cancelled) {
+                return false;
+            }
+            cancelled = true;
+        }
+        queue.clear();
+        // 소비자가 아직 기다리고 있다면 바로 끝낼 수 있도록 알린다.
+        queue.offer(endOfStream());
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    int queueSize() {
+        return cancelled ? 0 : queue.size();
+    }
+
+    @Override
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public ForkMetrics metrics() {
+        return metrics;
+    }
+
+    static int chunks(int capacity, int chunkSize) {
+        return capacity == Integer.MAX_VALUE ? Integer.MAX_VALUE : Math.max(1, capacity / chunkSize);
+    }
+
+    private final class QueuePutter implements ForkJoinPool.ManagedBlocker {
+        private final E item;
+        private boolean done;
+
+        QueuePutter(E item) {
+            this.item = item;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            while (!isReleasable()) {
+                done = queue.offer(item, CANCEL_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done || cancelled || (done = queue.offer(item));
+        }
+    }
+
+    private final class QueueTaker implements ForkJoinPool.ManagedBlocker {
+        private E item;
+
+        @Override
+        public boolean block() throws InterruptedException {
+            while (!isReleasable()) {
+                item = queue.poll(CANCEL_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return item != null || (item = queue.poll()) != null || cancelled;
+        }
+    }
+}
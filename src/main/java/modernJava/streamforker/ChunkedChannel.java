@@ -0,0 +1,115 @@
+package modernJava.streamforker;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * 생산자가 chunkSize개의 요소를 배열에 모아서 한 번에 큐에 넣는 채널, {@link Transport#CHUNKED}
+ * 큐의 락과 소비자를 깨우는 비용을 요소마다가 아니라 청크마다 한 번만 낸다.
+ */
+final class ChunkedChannel<T> extends AbstractChunkedChannel<T, Object[]> {
+
+    ChunkedChannel(Object key, int capacity, int chunkSize, OverflowPolicy overflowPolicy) {
+        super(key, capacity, chunkSize, overflowPolicy, new Object[0]);
+    }
+
+    @Override
+    int length(Object[] chunk) {
+        return chunk.length;
+    }
+
+    @Override
+    public Writer<T> writer() {
+        return new ChunkWriter();
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return new ChunkSpliterator();
+    }
+
+    /**
+     * 생산자마다 하나씩 사용하며, 모으는 배열은 그 생산자 스레드만 접근한다.
+     */
+    private final class ChunkWriter implements Writer<T> {
+        private Object[] pending = new Object[chunkSize];
+        private int pendingSize;
+
+        @Override
+        public void accept(T t) {
+            pending[pendingSize++] = t;
+            if (pendingSize == chunkSize) {
+                publish(pending);
+                pending = new Object[chunkSize];
+                pendingSize = 0;
+            }
+        }
+
+        @Override
+        public void flush() {
+            if (pendingSize > 0) {
+                publish(Arrays.copyOf(pending, pendingSize));
+                pendingSize = 0;
+            }
+        }
+    }
+
+    /**
+     * 청크를 하나씩 꺼내서 탐색한다. forEachRemaining은 청크 안에서는 락 없이 배열만 순회한다.
+     * chunk가 null이면 스트림의 끝을 만난 것이다.
+     */
+    private final class ChunkSpliterator implements Spliterator<T> {
+        private Object[] chunk = new Object[0];
+        private int index;
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (chunk == null || index == chunk.length && !advanceChunk()) {
+                return false;
+            }
+            metrics.consumed++;
+            action.accept(element(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            while (chunk != null) {
+                Object[] current = chunk;
+                for (int i = index; i < current.length; i++) {
+                    action.accept(element(i));
+                }
+                metrics.consumed += current.length - index;
+                index = current.length;
+                advanceChunk();
+            }
+        }
+
+        private boolean advanceChunk() {
+            chunk = nextChunk();
+            index = 0;
+            return chunk != null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T element(int i) {
+            return (T) chunk[i];
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED;
+        }
+    }
+}
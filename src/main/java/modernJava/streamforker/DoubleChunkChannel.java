@@ -0,0 +1,113 @@
+package modernJava.streamforker;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+
+/**
+ * double 값을 double[] 청크에 모아서 전달하는 채널, {@link DoubleStreamForker}에서 사용한다.
+ * 생산자와 포크 모두 기본형으로 다루므로 요소마다 박싱이 없다.
+ */
+final class DoubleChunkChannel extends AbstractChunkedChannel<Double, double[]> {
+
+    DoubleChunkChannel(Object key, int capacity, int chunkSize, OverflowPolicy overflowPolicy) {
+        super(key, capacity, chunkSize, overflowPolicy, new double[0]);
+    }
+
+    @Override
+    int length(double[] chunk) {
+        return chunk.length;
+    }
+
+    @Override
+    public DoubleWriter writer() {
+        return new DoubleWriter();
+    }
+
+    @Override
+    public Spliterator.OfDouble spliterator() {
+        return new DoubleChunkSpliterator();
+    }
+
+    /**
+     * 생산자마다 하나씩 사용하며, 모으는 배열은 그 생산자 스레드만 접근한다.
+     */
+    final class DoubleWriter implements Writer<Double> {
+        private double[] pending = new double[chunkSize];
+        private int pendingSize;
+
+        /**
+         * 값을 박싱하지 않고 전달한다.
+         */
+        public void accept(double value) {
+            pending[pendingSize++] = value;
+            if (pendingSize == chunkSize) {
+                publish(pending);
+                pending = new double[chunkSize];
+                pendingSize = 0;
+            }
+        }
+
+        @Override
+        public void accept(Double value) {
+            accept(value.doubleValue());
+        }
+
+        @Override
+        public void flush() {
+            if (pendingSize > 0) {
+                publish(Arrays.copyOf(pending, pendingSize));
+                pendingSize = 0;
+            }
+        }
+    }
+
+    private final class DoubleChunkSpliterator implements Spliterator.OfDouble {
+        private double[] chunk = new double[0];
+        private int index;
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            if (chunk == null || index == chunk.length && !advanceChunk()) {
+                return false;
+            }
+            metrics.consumed++;
+            action.accept(chunk[index++]);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            while (chunk != null) {
+                double[] current = chunk;
+                for (int i = index; i < current.length; i++) {
+                    action.accept(current[i]);
+                }
+                metrics.consumed += current.length - index;
+                index = current.length;
+                advanceChunk();
+            }
+        }
+
+        private boolean advanceChunk() {
+            chunk = nextChunk();
+            index = 0;
+            return chunk != null;
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package modernJava.streamforker;
+
+import java.util.Collection;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * DoubleStream을 여러 포크로 나눈다. {@code mapToDouble}처럼 기본형으로 바꾼 스트림을
+ * {@link StreamForker}로 나누면 값마다 박싱과 언박싱이 일어나지만, 이 클래스는 double[] 청크로 전달하고
+ * 포크에도 DoubleStream을 넘겨주므로 요소마다 할당이 없다.
+ */
+public class DoubleStreamForker extends PrimitiveStreamForker<Double, DoubleStream, DoubleChunkChannel, DoubleStreamForker> {
+
+    public DoubleStreamForker(DoubleStream stream) {
+        super(stream);
+    }
+
+    @Override
+    DoubleChunkChannel newChannel(Object key, int capacity, int chunkSize, OverflowPolicy overflowPolicy) {
+        return new DoubleChunkChannel(key, capacity, chunkSize, overflowPolicy);
+    }
+
+    @Override
+    DoubleStream stream(DoubleChunkChannel channel) {
+        return StreamSupport.doubleStream(channel.spliterator(), false);
+    }
+
+    @Override
+    void forEach(DoubleStream stream, Collection<DoubleChunkChannel> channels, ForkResults<Double> results) {
+        DoubleChunkChannel.DoubleWriter[] writers = channels.stream().map(DoubleChunkChannel::writer).toArray(DoubleChunkChannel.DoubleWriter[]::new);
+        // 모든 포크가 끝났거나 취소되면 원본 스트림을 더 탐색하지 않는다.
+        stream.takeWhile(value -> !results.isDone()).forEach(value -> {
+            for (DoubleChunkChannel.DoubleWriter writer : writers) {
+                writer.accept(value);
+            }
+        });
+        for (DoubleChunkChannel.DoubleWriter writer : writers) {
+            writer.flush();
+        }
+    }
+}
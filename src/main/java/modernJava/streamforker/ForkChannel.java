@@ -0,0 +1,65 @@
+package modernJava.streamforker;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * 생산자에서 포크 하나로 요소를 전달하는 통로
+ * writer가 만든 Writer는 원본 스트림을 탐색하는 생산자 스레드에서, spliterator가 만든 Spliterator는 포크 태스크에서 사용한다.
+ */
+interface ForkChannel<T> {
+
+    /**
+     * 생산자 하나가 요소를 넣을 때 사용할 입구를 만든다. 병렬 모드에서는 생산자마다 하나씩 만든다.
+     */
+    Writer<T> writer();
+
+    /**
+     * 스트림의 끝을 알린다. 모든 Writer를 flush한 뒤에 한 번만 호출한다.
+     */
+    void close();
+
+    /**
+     * 포크가 더 이상 요소를 받지 않도록 한다. 포크의 스트림이 중간에 끝났거나 포크가 취소되면 호출한다.
+     * 이후에 넣는 요소는 버려지고, 버퍼에 남은 요소는 정리되며, 스트림의 끝도 전달하지 않는다.
+     *
+     * @return 이 호출로 취소되었으면 true, 이미 취소되어 있었으면 false
+     */
+    boolean cancel();
+
+    boolean isCancelled();
+
+    /**
+     * 포크 태스크가 소비할 Spliterator, 스트림의 끝을 만나면 탐색을 마친다.
+     */
+    Spliterator<T> spliterator();
+
+    /**
+     * 포크가 아직 소비하지 않은 요소의 수
+     */
+    int depth();
+
+    /**
+     * 넘침 정책에 따라 버려진 요소의 수
+     */
+    long dropped();
+
+    /**
+     * 포크의 통계, 포크 태스크가 요소를 꺼낼 때와 생산자가 요소를 넣을 때 갱신한다.
+     */
+    ForkMetrics metrics();
+
+    interface Writer<T> extends Consumer<T> {
+
+        /**
+         * 요소를 포크로 전달한다. 버퍼가 가득 차면 넘침 정책을 따른다.
+         */
+        @Override
+        void accept(T t);
+
+        /**
+         * 모아 두고 아직 전달하지 않은 요소를 모두 내보낸다.
+         */
+        void flush();
+    }
+}
@@ -0,0 +1,12 @@
+package modernJava.streamforker;
+
+/**
+ * 포크가 끝날 때마다 통계를 받는다. 포크 태스크를 실행한 스레드(합칠 수 있는 포크는 생산자 스레드)에서 호출되므로
+ * 오래 걸리는 작업은 다른 스레드로 넘겨야 한다. 리스너가 던진 예외는 포크의 결과에 영향을 주지 않고
+ * 호출한 스레드의 UncaughtExceptionHandler로 전달된다.
+ */
+@FunctionalInterface
+public interface ForkListener {
+
+    void forkFinished(ForkStats stats);
+}
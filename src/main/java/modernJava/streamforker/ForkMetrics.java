@@ -0,0 +1,43 @@
+package modernJava.streamforker;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * 포크 하나의 통계를 모은다.
+ * consumed와 blockedNanos는 포크 태스크 스레드만 쓰므로 일반 필드로 두고, finish에서 finishedAt을 쓰면서 공개한다.
+ * 버퍼 깊이는 병렬 모드에서 여러 생산자가 갱신하므로 LongAccumulator로 최댓값을 유지한다.
+ * 최댓값이 바뀌지 않으면 CAS 없이 읽기만 한다.
+ */
+final class ForkMetrics {
+    long consumed;
+    long blockedNanos;
+    private final LongAccumulator peakDepth = new LongAccumulator(Math::max, 0);
+    private volatile long startNanos;
+    private volatile long endNanos;
+    private volatile Instant finishedAt;
+
+    void start() {
+        startNanos = System.nanoTime();
+    }
+
+    void depth(long depth) {
+        peakDepth.accumulate(depth);
+    }
+
+    void finish() {
+        endNanos = System.nanoTime();
+        finishedAt = Instant.now();
+    }
+
+    ForkStats snapshot(Object key) {
+        // finishedAt을 먼저 읽어야 포크 스레드가 그 전에 쓴 값이 보인다.
+        Instant finished = finishedAt;
+        long start = startNanos;
+        long elapsed = start == 0 ? 0 : (finished == null ? System.nanoTime() : endNanos) - start;
+        long blocked = blockedNanos;
+        return new ForkStats(key, consumed, Duration.ofNanos(blocked), Duration.ofNanos(Math.max(0, elapsed - blocked)),
+                (int) peakDepth.get(), finished);
+    }
+}
@@ -0,0 +1,230 @@
+package modernJava.streamforker;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * 포크의 결과와 채널, 원본 스트림 탐색 상태를 관리한다. 생산자는 요소마다 {@link #isDone()}을 확인한다.
+ */
+final class ForkResults<T> implements StreamForker.Results {
+    private final Map<Object, ForkChannel<T>> channels;
+    // 요소마다 순회하므로 Map 대신 배열을 사용한다.
+    private final ForkChannel<T>[] targets;
+    private final Map<Object, Future<?>> actions = new HashMap<>();
+    private final Collector<? super T, Object, Object>[] collectors;
+    private final CompletableFuture<Object>[] collected;
+    private final Object[] collectedKeys;
+    private final ForkMetrics[] collectedMetrics;
+    private final Map<Object, ForkMetrics> metrics = new HashMap<>();
+    private final ForkListener listener;
+    private final AtomicInteger activeForks;
+    // 생산자가 요소마다 읽으므로 모든 포크가 끝났거나 취소된 상태를 플래그 하나로 둔다.
+    private volatile boolean done;
+    private volatile Throwable failure;
+
+    @SuppressWarnings("unchecked")
+    ForkResults(Map<Object, ? extends ForkChannel<T>> channels, Map<Object, Collector<? super T, ?, ?>> combinableForks,
+                ForkListener listener) {
+        this.channels = Collections.unmodifiableMap(channels);
+        this.targets = (ForkChannel<T>[]) channels.values().toArray(new ForkChannel<?>[0]);
+        this.collectors = (Collector<? super T, Object, Object>[]) combinableForks.values().toArray(new Collector<?, ?, ?>[0]);
+        this.collected = (CompletableFuture<Object>[]) new CompletableFuture<?>[collectors.length];
+        this.collectedKeys = combinableForks.keySet().toArray();
+        this.collectedMetrics = new ForkMetrics[collectors.length];
+        this.listener = listener;
+        channels.forEach((key, channel) -> metrics.put(key, channel.metrics()));
+        for (int i = 0; i < collectors.length; i++) {
+            collected[i] = new CompletableFuture<>();
+            actions.put(collectedKeys[i], collected[i]);
+            // 합칠 수 있는 포크는 생산자가 탐색을 시작할 때 시작한 것으로 본다.
+            collectedMetrics[i] = new ForkMetrics();
+            collectedMetrics[i].start();
+            metrics.put(collectedKeys[i], collectedMetrics[i]);
+        }
+        this.activeForks = new AtomicInteger(targets.length);
+        // 합칠 수 있는 포크는 원본 스트림을 끝까지 탐색해야 결과가 나온다.
+        this.done = targets.length == 0 && collectors.length == 0;
+    }
+
+    void register(Object key, Future<?> action) {
+        actions.put(key, action);
+    }
+
+    /**
+     * 생산자 하나가 사용할 Consumer를 만든다. 병렬 모드에서는 분할된 조각마다 하나씩 만든다.
+     */
+    @SuppressWarnings("unchecked")
+    ForkingStreamConsumer<T> newConsumer() {
+        ForkChannel.Writer<T>[] writers = (ForkChannel.Writer<T>[]) new ForkChannel.Writer<?>[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            writers[i] = targets[i].writer();
+        }
+        Object[] containers = new Object[collectors.length];
+        for (int i = 0; i < collectors.length; i++) {
+            containers[i] = collectors[i].supplier().get();
+        }
+        return new ForkingStreamConsumer<>(writers, collectors, containers);
+    }
+
+    /**
+     * 포크 태스크를 실행하면서 통계를 기록한다.
+     * findFirst, anyMatch, limit처럼 스트림을 끝까지 읽지 않고 반환했더라도 포크는 끝났으므로 더 이상 요소를 전달하지 않는다.
+     */
+    <R> R runFork(Object key, ForkChannel<T> channel, Supplier<R> block) {
+        ForkMetrics forkMetrics = channel.metrics();
+        forkMetrics.start();
+        try {
+            return block.get();
+        } finally {
+            forkMetrics.finish();
+            finish(channel);
+            notifyFinished(key, forkMetrics);
+        }
+    }
+
+    private void notifyFinished(Object key, ForkMetrics forkMetrics) {
+        if (listener == null) {
+            return;
+        }
+        try {
+            listener.forkFinished(forkMetrics.snapshot(key));
+        } catch (RuntimeException e) {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    /**
+     * 포크가 끝났으면 채널을 닫아 더 이상 요소를 받지 않게 하고, 모든 포크가 끝났으면 원본 스트림 탐색을 멈춘다.
+     */
+    void finish(ForkChannel<T> channel) {
+        if (channel.cancel() && activeForks.decrementAndGet() == 0 && collectors.length == 0) {
+            done = true;
+        }
+    }
+
+    boolean isDone() {
+        return done;
+    }
+
+    void complete(ForkingStreamConsumer<T> consumer) {
+        for (int i = 0; i < collectors.length; i++) {
+            try {
+                collected[i].complete(collectors[i].finisher().apply(consumer.containers[i]));
+            } catch (RuntimeException e) {
+                collected[i].completeExceptionally(e);
+            }
+            collectedMetrics[i].consumed = consumer.count;
+            collectedMetrics[i].finish();
+            notifyFinished(collectedKeys[i], collectedMetrics[i]);
+        }
+    }
+
+    void fail(Throwable e) {
+        failure = e;
+        for (CompletableFuture<Object> future : collected) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    void close() {
+        for (ForkChannel<T> channel : targets) {
+            channel.close();
+        }
+    }
+
+    @Override
+    public <R> R get(Object key) {
+        try {
+            // 키에 대응하는 동작의 결과를 반환, Future의 계산 완료 대기
+            return checkFailure(this.<R>future(key).get());
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public <R> R get(Object key, long timeout, TimeUnit unit) throws TimeoutException {
+        try {
+            return checkFailure(this.<R>future(key).get(timeout, unit));
+        } catch (TimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 원본 스트림 탐색이 실패했으면 포크는 일부 요소만 보고 끝났으므로 결과를 돌려주지 않는다.
+     */
+    private <R> R checkFailure(R result) throws ExecutionException {
+        Throwable cause = failure;
+        if (cause != null) {
+            throw new ExecutionException(cause);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean cancel(Object key) {
+        // 채널을 먼저 닫으면 포크가 그때까지 받은 요소로 정상 완료될 수 있으므로 Future부터 취소한다.
+        boolean cancelled = future(key).cancel(false);
+        ForkChannel<T> channel = channels.get(key);
+        if (channel != null) {
+            finish(channel);
+        }
+        return cancelled;
+    }
+
+    @Override
+    public void cancel() {
+        // 생산자가 멈추면서 채널에 스트림의 끝을 전달하기 전에 Future부터 취소해야 포크가 정상 완료되지 않는다.
+        for (Future<?> action : actions.values()) {
+            action.cancel(false);
+        }
+        done = true;
+        for (ForkChannel<T> channel : targets) {
+            channel.cancel();
+        }
+    }
+
+    @Override
+    public ForkStats stats(Object key) {
+        future(key);
+        return metrics.get(key).snapshot(key);
+    }
+
+    @Override
+    public int queueDepth(Object key) {
+        ForkChannel<T> channel = channel(key);
+        return channel == null ? 0 : channel.depth();
+    }
+
+    @Override
+    public long droppedCount(Object key) {
+        ForkChannel<T> channel = channel(key);
+        return channel == null ? 0 : channel.dropped();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> Future<R> future(Object key) {
+        Future<?> action = actions.get(key);
+        if (action == null) {
+            throw new IllegalArgumentException("unknown fork: " + key);
+        }
+        return (Future<R>) action;
+    }
+
+    /**
+     * 합칠 수 있는 포크는 채널 없이 생산자 스레드에서 누적하므로 null을 반환한다.
+     */
+    private ForkChannel<T> channel(Object key) {
+        future(key);
+        return channels.get(key);
+    }
+}
@@ -0,0 +1,22 @@
+package modernJava.streamforker;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * 포크 하나의 실행 통계, {@link StreamForker.Results#stats(Object)}로 얻는다.
+ * 아직 실행 중인 포크의 통계는 조회한 시점의 근사치이며 finishedAt이 null이다.
+ *
+ * @param elementsConsumed 포크가 채널에서 꺼낸 요소의 수, 합칠 수 있는 포크는 누적한 요소의 수
+ * @param blockedTime      포크가 빈 버퍼에서 요소를 기다린 시간
+ * @param computeTime      포크 태스크의 실행 시간에서 blockedTime을 뺀 시간
+ * @param peakQueueDepth   포크의 버퍼에 쌓였던 요소 수의 최댓값
+ * @param finishedAt       포크가 끝난 시각
+ */
+public record ForkStats(Object key, long elementsConsumed, Duration blockedTime, Duration computeTime,
+                        int peakQueueDepth, Instant finishedAt) {
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+}
@@ -0,0 +1,57 @@
+package modernJava.streamforker;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+
+/**
+ * 생산자 하나가 탐색한 요소를 모든 포크로 전달한다.
+ */
+final class ForkingStreamConsumer<T> implements Consumer<T> {
+    private final ForkChannel.Writer<T>[] writers;
+    private final Collector<? super T, Object, Object>[] collectors;
+    private final BiConsumer<Object, ? super T>[] accumulators;
+    final Object[] containers;
+    // 이 생산자가 탐색한 요소의 수, 합칠 수 있는 포크의 통계에 사용한다.
+    long count;
+
+    @SuppressWarnings("unchecked")
+    ForkingStreamConsumer(ForkChannel.Writer<T>[] writers, Collector<? super T, Object, Object>[] collectors, Object[] containers) {
+        this.writers = writers;
+        this.collectors = collectors;
+        this.accumulators = (BiConsumer<Object, ? super T>[]) new BiConsumer<?, ?>[collectors.length];
+        for (int i = 0; i < collectors.length; i++) {
+            accumulators[i] = collectors[i].accumulator();
+        }
+        this.containers = containers;
+    }
+
+    @Override
+    public void accept(T t) {
+        // 스트림에서 탐색한 요소를 모든 채널로 전달하고, 합칠 수 있는 포크는 바로 누적한다.
+        count++;
+        for (ForkChannel.Writer<T> writer : writers) {
+            writer.accept(t);
+        }
+        for (int i = 0; i < containers.length; i++) {
+            accumulators[i].accept(containers[i], t);
+        }
+    }
+
+    void flush() {
+        for (ForkChannel.Writer<T> writer : writers) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * 원본 스트림에서 뒤에 오는 조각의 누적 결과를 합친다.
+     */
+    ForkingStreamConsumer<T> combine(ForkingStreamConsumer<T> right) {
+        for (int i = 0; i < containers.length; i++) {
+            containers[i] = collectors[i].combiner().apply(containers[i], right.containers[i]);
+        }
+        count += right.count;
+        return this;
+    }
+}
@@ -0,0 +1,41 @@
+package modernJava.streamforker;
+
+import java.util.Collection;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * IntStream을 여러 포크로 나눈다. {@code mapToInt(Dish::getCalories)}처럼 기본형으로 바꾼 스트림을
+ * {@link StreamForker}로 나누면 값마다 박싱과 언박싱이 일어나지만, 이 클래스는 int[] 청크로 전달하고
+ * 포크에도 IntStream을 넘겨주므로 요소마다 할당이 없다.
+ */
+public class IntStreamForker extends PrimitiveStreamForker<Integer, IntStream, IntChunkChannel, IntStreamForker> {
+
+    public IntStreamForker(IntStream stream) {
+        super(stream);
+    }
+
+    @Override
+    IntChunkChannel newChannel(Object key, int capacity, int chunkSize, OverflowPolicy overflowPolicy) {
+        return new IntChunkChannel(key, capacity, chunkSize, overflowPolicy);
+    }
+
+    @Override
+    IntStream stream(IntChunkChannel channel) {
+        return StreamSupport.intStream(channel.spliterator(), false);
+    }
+
+    @Override
+    void forEach(IntStream stream, Collection<IntChunkChannel> channels, ForkResults<Integer> results) {
+        IntChunkChannel.IntWriter[] writers = channels.stream().map(IntChunkChannel::writer).toArray(IntChunkChannel.IntWriter[]::new);
+        // 모든 포크가 끝났거나 취소되면 원본 스트림을 더 탐색하지 않는다.
+        stream.takeWhile(value -> !results.isDone()).forEach(value -> {
+            for (IntChunkChannel.IntWriter writer : writers) {
+                writer.accept(value);
+            }
+        });
+        for (IntChunkChannel.IntWriter writer : writers) {
+            writer.flush();
+        }
+    }
+}
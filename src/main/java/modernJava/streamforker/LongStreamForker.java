@@ -0,0 +1,41 @@
+package modernJava.streamforker;
+
+import java.util.Collection;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * LongStream을 여러 포크로 나눈다. {@code mapToLong}처럼 기본형으로 바꾼 스트림을
+ * {@link StreamForker}로 나누면 값마다 박싱과 언박싱이 일어나지만, 이 클래스는 long[] 청크로 전달하고
+ * 포크에도 LongStream을 넘겨주므로 요소마다 할당이 없다.
+ */
+public class LongStreamForker extends PrimitiveStreamForker<Long, LongStream, LongChunkChannel, LongStreamForker> {
+
+    public LongStreamForker(LongStream stream) {
+        super(stream);
+    }
+
+    @Override
+    LongChunkChannel newChannel(Object key, int capacity, int chunkSize, OverflowPolicy overflowPolicy) {
+        return new LongChunkChannel(key, capacity, chunkSize, overflowPolicy);
+    }
+
+    @Override
+    LongStream stream(LongChunkChannel channel) {
+        return StreamSupport.longStream(channel.spliterator(), false);
+    }
+
+    @Override
+    void forEach(LongStream stream, Collection<LongChunkChannel> channels, ForkResults<Long> results) {
+        LongChunkChannel.LongWriter[] writers = channels.stream().map(LongChunkChannel::writer).toArray(LongChunkChannel.LongWriter[]::new);
+        // 모든 포크가 끝났거나 취소되면 원본 스트림을 더 탐색하지 않는다.
+        stream.takeWhile(value -> !results.isDone()).forEach(value -> {
+            for (LongChunkChannel.LongWriter writer : writers) {
+                writer.accept(value);
+            }
+        });
+        for (LongChunkChannel.LongWriter writer : writers) {
+            writer.flush();
+        }
+    }
+}
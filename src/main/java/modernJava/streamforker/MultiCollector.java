@@ -0,0 +1,186 @@
+package modernJava.streamforker;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * 여러 Collector를 키와 함께 등록해서 원본 스트림을 한 번만 탐색하며 모두 누적하는 Collector
+ * {@link StreamForker}와 달리 스레드나 큐 없이 호출한 스레드에서 실행되고, 병렬 스트림에서는 각 Collector의 combiner로 합친다.
+ * 결과는 StreamForker와 같은 {@link StreamForker.Results}로 반환하므로, 분기마다 드는 비용에 따라
+ * 스레드로 나눠 실행할지 한 번에 누적할지를 호출하는 쪽 코드를 바꾸지 않고 고를 수 있다.
+ *
+ * <pre>{@code
+ * StreamForker.Results results = menu.stream()
+ *         .collect(new MultiCollector<Dish>()
+ *                 .add("totalCalories", summingInt(Dish::getCalories))
+ *                 .add("dishesByType", groupingBy(Dish::getType)));
+ * }</pre>
+ */
+public class MultiCollector<T> implements Collector<T, MultiCollector.Containers, StreamForker.Results> {
+    private final Map<Object, Collector<? super T, ?, ?>> collectors = new LinkedHashMap<>();
+
+    /**
+     * 키에 대응하는 Collector를 등록한다. 같은 키로 다시 등록하면 이전 Collector를 대체한다.
+     */
+    public MultiCollector<T> add(Object key, Collector<? super T, ?, ?> collector) {
+        collectors.put(key, Objects.requireNonNull(collector));
+        return this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Supplier<Containers> supplier() {
+        // 스트림이 탐색을 시작할 때 등록된 Collector로 고정한다.
+        Supplier<Object>[] suppliers = functions(Collector::supplier, Supplier[]::new);
+        return () -> {
+            Object[] containers = new Object[suppliers.length];
+            for (int i = 0; i < suppliers.length; i++) {
+                containers[i] = suppliers[i].get();
+            }
+            return new Containers(containers);
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public BiConsumer<Containers, T> accumulator() {
+        BiConsumer<Object, ? super T>[] accumulators = functions(Collector::accumulator, BiConsumer[]::new);
+        return (c, t) -> {
+            c.count++;
+            for (int i = 0; i < accumulators.length; i++) {
+                accumulators[i].accept(c.containers[i], t);
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public BinaryOperator<Containers> combiner() {
+        BinaryOperator<Object>[] combiners = functions(Collector::combiner, BinaryOperator[]::new);
+        return (left, right) -> {
+            for (int i = 0; i < combiners.length; i++) {
+                left.containers[i] = combiners[i].apply(left.containers[i], right.containers[i]);
+            }
+            left.count += right.count;
+            return left;
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Function<Containers, StreamForker.Results> finisher() {
+        Object[] keys = collectors.keySet().toArray();
+        Function<Object, Object>[] finishers = functions(Collector::finisher, Function[]::new);
+        return c -> {
+            Map<Object, Object> values = new HashMap<>();
+            for (int i = 0; i < finishers.length; i++) {
+                values.put(keys[i], finishers[i].apply(c.containers[i]));
+            }
+            return new FusedResults(values, c.count, Instant.now());
+        };
+    }
+
+    /**
+     * 모든 Collector가 UNORDERED일 때만 UNORDERED다. CONCURRENT는 지원하지 않는다.
+     */
+    @Override
+    public Set<Characteristics> characteristics() {
+        for (Collector<? super T, ?, ?> collector : collectors.values()) {
+            if (!collector.characteristics().contains(Characteristics.UNORDERED)) {
+                return Set.of();
+            }
+        }
+        return Set.of(Characteristics.UNORDERED);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <F> F[] functions(Function<Collector<? super T, Object, Object>, ?> function, IntFunction<F[]> array) {
+        return collectors.values().stream()
+                .map(c -> (F) function.apply((Collector<? super T, Object, Object>) c))
+                .toArray(array);
+    }
+
+    /**
+     * Collector마다의 누적 컨테이너와 누적한 요소의 수
+     */
+    public static final class Containers {
+        private final Object[] containers;
+        private long count;
+
+        private Containers(Object[] containers) {
+            this.containers = containers;
+        }
+    }
+
+    /**
+     * 이미 계산이 끝난 결과이므로 기다리거나 취소할 것이 없다.
+     */
+    private static final class FusedResults implements StreamForker.Results {
+        private final Map<Object, Object> values;
+        private final long count;
+        private final Instant finishedAt;
+
+        FusedResults(Map<Object, Object> values, long count, Instant finishedAt) {
+            this.values = values;
+            this.count = count;
+            this.finishedAt = finishedAt;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <R> R get(Object key) {
+            checkKey(key);
+            return (R) values.get(key);
+        }
+
+        @Override
+        public <R> R get(Object key, long timeout, TimeUnit unit) {
+            return get(key);
+        }
+
+        @Override
+        public boolean cancel(Object key) {
+            checkKey(key);
+            return false;
+        }
+
+        @Override
+        public void cancel() {
+        }
+
+        /**
+         * 모든 Collector가 같은 스레드에서 함께 누적하므로 따로 기다리거나 계산한 시간을 구분하지 않는다.
+         */
+        @Override
+        public ForkStats stats(Object key) {
+            checkKey(key);
+            return new ForkStats(key, count, Duration.ZERO, Duration.ZERO, 0, finishedAt);
+        }
+
+        @Override
+        public int queueDepth(Object key) {
+            checkKey(key);
+            return 0;
+        }
+
+        @Override
+        public long droppedCount(Object key) {
+            checkKey(key);
+            return 0;
+        }
+
+        private void checkKey(Object key) {
+            if (!values.containsKey(key)) {
+                throw new IllegalArgumentException("unknown fork: " + key);
+            }
+        }
+    }
+}
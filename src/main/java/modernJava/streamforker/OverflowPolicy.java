@@ -0,0 +1,20 @@
+package modernJava.streamforker;
+
+/**
+ * 포크의 버퍼가 가득 찼을 때 생산자(원본 스트림을 탐색하는 스레드)가 취할 동작
+ */
+public enum OverflowPolicy {
+    /**
+     * 포크가 요소를 소비해서 버퍼에 공간이 생길 때까지 생산자를 대기시킨다.
+     * 가장 느린 포크의 속도에 맞춰 원본 스트림을 탐색하므로 요소가 유실되지 않는다.
+     */
+    BLOCK,
+    /**
+     * 버퍼에 넣지 못한 요소를 해당 포크에서만 버린다. 버린 요소의 수는 {@link StreamForker.Results#droppedCount(Object)}로 확인한다.
+     */
+    DROP,
+    /**
+     * 버퍼에 넣지 못하면 {@link IllegalStateException}을 던져 원본 스트림 탐색을 중단한다.
+     */
+    FAIL
+}
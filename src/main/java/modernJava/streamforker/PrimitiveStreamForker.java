@@ -0,0 +1,155 @@
+package modernJava.streamforker;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.BaseStream;
+
+/**
+ * 기본형 스트림을 여러 포크로 나누는 {@link IntStreamForker}, {@link LongStreamForker}, {@link DoubleStreamForker}의 공통 부분
+ * 생산자는 값을 기본형 배열 청크에 모아 전달하고, 포크는 청크를 기본형 스트림으로 다시 탐색하므로 요소마다 박싱이 없다.
+ * 요소를 항상 청크로 전달하므로 {@link Transport}는 지정할 수 없다.
+ *
+ * @param <T> 기본형에 대응하는 박싱 타입
+ * @param <S> 기본형 스트림 타입
+ * @param <C> 기본형 청크를 전달하는 채널
+ * @param <F> 메서드 체인에서 반환할 하위 클래스 타입
+ */
+abstract class PrimitiveStreamForker<T, S extends BaseStream<T, S>, C extends AbstractChunkedChannel<T, ?>,
+        F extends PrimitiveStreamForker<T, S, C, F>> {
+    private final S stream;
+    private final Map<Object, Function<S, ?>> forks = new HashMap<>();
+    private int capacity = Integer.MAX_VALUE;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private int chunkSize = StreamForker.DEFAULT_CHUNK_SIZE;
+    private Executor executor;
+    private ForkListener listener;
+
+    PrimitiveStreamForker(S stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * 포크 채널을 만든다.
+     */
+    abstract C newChannel(Object key, int capacity, int chunkSize, OverflowPolicy overflowPolicy);
+
+    /**
+     * 채널의 청크를 탐색하는 기본형 스트림을 만든다.
+     */
+    abstract S stream(C channel);
+
+    /**
+     * 원본 스트림의 값을 모든 채널에 기본형 그대로 전달한다. results가 끝나면 탐색을 멈춘다.
+     */
+    abstract void forEach(S stream, Collection<C> channels, ForkResults<T> results);
+
+    @SuppressWarnings("unchecked")
+    private F self() {
+        return (F) this;
+    }
+
+    /**
+     * @see StreamForker#bounded(int)
+     */
+    public F bounded(int capacity) {
+        return bounded(capacity, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * @see StreamForker#bounded(int, OverflowPolicy)
+     */
+    public F bounded(int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+        return self();
+    }
+
+    /**
+     * 한 번에 옮기는 값의 수, 기본값은 {@link StreamForker#DEFAULT_CHUNK_SIZE}이고 {@link #bounded(int)}로 지정한 용량보다 크면
+     * 용량으로 줄인다.
+     */
+    public F chunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        return self();
+    }
+
+    /**
+     * @see StreamForker#executor(Executor)
+     */
+    public F executor(Executor executor) {
+        this.executor = Objects.requireNonNull(executor);
+        return self();
+    }
+
+    /**
+     * @see StreamForker#virtualThreads()
+     */
+    public F virtualThreads() {
+        return executor(StreamForker.VIRTUAL_THREAD_PER_FORK);
+    }
+
+    /**
+     * @see StreamForker#listener(ForkListener)
+     */
+    public F listener(ForkListener listener) {
+        this.listener = Objects.requireNonNull(listener);
+        return self();
+    }
+
+    public F fork(Object key, Function<S, ?> block) {
+        forks.put(key, Objects.requireNonNull(block));
+        return self();
+    }
+
+    public StreamForker.Results getResults() {
+        Map<Object, C> channels = new LinkedHashMap<>();
+        ForkResults<T> results = build(channels);
+        produce(results, channels.values());
+        return results;
+    }
+
+    /**
+     * @see StreamForker#getResultsAsync()
+     */
+    public StreamForker.Results getResultsAsync() {
+        Map<Object, C> channels = new LinkedHashMap<>();
+        ForkResults<T> results = build(channels);
+        CompletableFuture.runAsync(() -> produce(results, channels.values()), executor == null ? ForkJoinPool.commonPool() : executor);
+        return results;
+    }
+
+    private ForkResults<T> build(Map<Object, C> channels) {
+        forks.keySet().forEach(key -> channels.put(key, newChannel(key, capacity, chunkSize, overflowPolicy)));
+        ForkResults<T> results = new ForkResults<>(channels, Map.of(), listener);
+        forks.forEach((key, block) -> results.register(key, getOperationResult(results, key, channels.get(key), block)));
+        return results;
+    }
+
+    private Future<?> getOperationResult(ForkResults<T> results, Object key, C channel, Function<S, ?> block) {
+        S source = stream(channel);
+        Supplier<?> task = () -> results.runFork(key, channel, () -> block.apply(source));
+        return executor == null ? CompletableFuture.supplyAsync(task) : CompletableFuture.supplyAsync(task, executor);
+    }
+
+    private void produce(ForkResults<T> results, Collection<C> channels) {
+        try {
+            forEach(stream.sequential(), channels, results);
+        } catch (RuntimeException | Error e) {
+            results.fail(e);
+            throw e;
+        } finally {
+            results.close();
+        }
+    }
+}
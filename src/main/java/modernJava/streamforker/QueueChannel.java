@@ -0,0 +1,78 @@
+package modernJava.streamforker;
+
+import java.util.Spliterator;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * 요소 하나마다 큐에 넣고 꺼내는 채널, {@link Transport#QUEUE}
+ */
+final class QueueChannel<T> extends BlockingQueueChannel<T, Object> {
+    private static final Object END_OF_STREAM = new Object();
+
+    QueueChannel(Object key, int capacity, OverflowPolicy overflowPolicy) {
+        super(key, new LinkedBlockingQueue<>(capacity), overflowPolicy);
+    }
+
+    @Override
+    public Writer<T> writer() {
+        // 요소를 모아 두지 않으므로 여러 생산자가 하나의 큐에 바로 넣는다.
+        return new Writer<>() {
+            @Override
+            public void accept(T t) {
+                if (enqueue(t, 1)) {
+                    metrics.depth(queueSize());
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+        };
+    }
+
+    @Override
+    Object endOfStream() {
+        return END_OF_STREAM;
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return new BlockingQueueSpliterator();
+    }
+
+    @Override
+    public int depth() {
+        return queueSize();
+    }
+
+    private final class BlockingQueueSpliterator implements Spliterator<T> {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Object t = dequeue();
+            if (t != END_OF_STREAM) {
+                metrics.consumed++;
+                action.accept((T) t);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return 0;
+        }
+
+        @Override
+        public int characteristics() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package modernJava.streamforker;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 생산자 하나와 소비자 하나만 접근하는 배열 기반 링 버퍼 채널, {@link Transport#SPSC_RING}
+ * 락도 CAS도 사용하지 않고 tail(생산자)과 head(소비자)를 각자 자기 스레드에서만 쓰고 상대 스레드는 읽기만 한다.
+ * 요소를 옮길 때 노드를 만들지 않으므로 요소마다 할당이 없다.
+ *
+ * head와 tail은 상속 계층 사이에 끼운 패딩 필드로 서로 다른 캐시 라인에 놓이고,
+ * 배열의 앞뒤에도 빈 슬롯을 두어 다른 포크의 채널과 캐시 라인을 공유하지 않는다(false sharing 방지).
+ */
+final class SpscRingChannel<T> extends SpscRingConsumerFields implements ForkChannel<T> {
+    static final int DEFAULT_CAPACITY = 1024;
+
+    private static final Object END_OF_STREAM = new Object();
+    // 배열 앞뒤에 둘 빈 슬롯 수, 참조 하나가 4바이트여도 128바이트(인접 캐시 라인 프리페치 단위)를 채운다.
+    private static final int PAD_SLOTS = 32;
+    private static final int SPINS = 128;
+    private static final int YIELDS = 16;
+    private static final long MAX_PARK_NANOS = 1_000_000;
+    // 생산자가 head를 읽으면 소비자의 캐시 라인을 건드리므로 버퍼 깊이는 이 간격마다 한 번만 잰다.
+    private static final int DEPTH_SAMPLE_MASK = 63;
+
+    private final Object key;
+    private final OverflowPolicy overflowPolicy;
+    private final Object[] buffer;
+    private final int mask;
+    private volatile long dropped;
+    private volatile boolean cancelled;
+    private boolean writerCreated;
+    private final ForkMetrics metrics = new ForkMetrics();
+
+    SpscRingChannel(Object key, int capacity, OverflowPolicy overflowPolicy) {
+        this.key = key;
+        this.overflowPolicy = overflowPolicy;
+        int size = capacity == Integer.MAX_VALUE ? DEFAULT_CAPACITY : ceilingPowerOfTwo(capacity);
+        this.buffer = new Object[size + 2 * PAD_SLOTS];
+        this.mask = size - 1;
+    }
+
+    private static int ceilingPowerOfTwo(int capacity) {
+        if (capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity is too large for a ring buffer: " + capacity);
+        }
+        return capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    private int offset(long sequence) {
+        return PAD_SLOTS + (int) (sequence & mask);
+    }
+
+    @Override
+    public synchronized Writer<T> writer() {
+        if (writerCreated) {
+            throw new IllegalStateException("fork '" + key + "' uses SPSC_RING, which allows a single producer");
+        }
+        writerCreated = true;
+        return new Writer<>() {
+            @Override
+            public void accept(T t) {
+                offer(t, false);
+            }
+
+            @Override
+            public void flush() {
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        // 스트림의 끝을 알리는 요소는 넘침 정책과 관계없이 전달되어야 한다.
+        offer(END_OF_STREAM, true);
+    }
+
+    /**
+     * 생산자와 소비자는 각자 대기하는 동안 cancelled를 확인하고 빠져나온다.
+     * 슬롯은 소비자 스레드만 비울 수 있으므로 남은 요소는 채널과 함께 수거된다.
+     */
+    @Override
+    public synchronized boolean cancel() {
+        if (cancelled) {
+            return false;
+        }
+        cancelled = true;
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    private void offer(Object e, boolean mustDeliver) {
+        if (cancelled) {
+            return;
+        }
+        long t = tail;
+        if (t - headCache > mask) {
+            headCache = (long) HEAD.getAcquire(this);
+            if (t - headCache > mask && !awaitSpace(t, mustDeliver)) {
+                return;
+            }
+        }
+        buffer[offset(t)] = e;
+        // 슬롯을 채운 뒤에 tail을 공개해야 소비자가 채워지지 않은 슬롯을 읽지 않는다.
+        TAIL.setRelease(this, t + 1);
+        if ((t & DEPTH_SAMPLE_MASK) == 0) {
+            metrics.depth(t + 1 - (long) HEAD.getAcquire(this));
+        }
+    }
+
+    private boolean awaitSpace(long t, boolean mustDeliver) {
+        OverflowPolicy policy = mustDeliver ? OverflowPolicy.BLOCK : overflowPolicy;
+        switch (policy) {
+            case DROP -> {
+                dropped++;
+                return false;
+            }
+            case FAIL -> throw new IllegalStateException(
+                    "fork '" + key + "' buffer is full (capacity: " + (mask + 1) + ")");
+            default -> {
+                for (int i = 0; t - (headCache = (long) HEAD.getAcquire(this)) > mask; i++) {
+                    if (cancelled) {
+                        return false;
+                    }
+                    backoff(i);
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 상대 스레드를 깨우는 신호가 없으므로 잠깐 스핀하고, 양보하고, 점점 길게 잠드는 순서로 대기한다.
+     */
+    private static void backoff(int attempt) {
+        if (attempt < SPINS) {
+            Thread.onSpinWait();
+        } else if (attempt < SPINS + YIELDS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1_000L << Math.min(attempt - SPINS - YIELDS, 10)));
+        }
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return new RingSpliterator();
+    }
+
+    @Override
+    public int depth() {
+        if (cancelled) {
+            return 0;
+        }
+        long size = (long) TAIL.getAcquire(this) - (long) HEAD.getAcquire(this);
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    @Override
+    public long dropped() {
+        return dropped;
+    }
+
+    @Override
+    public ForkMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * 소비자 스레드에서만 사용한다. 링이 비어 있으면 스핀과 양보 뒤에 ManagedBlocker로 잠들어서
+     * 공용 ForkJoinPool이 보상 스레드를 만들 수 있게 한다.
+     */
+    private final class RingSpliterator implements Spliterator<T>, ForkJoinPool.ManagedBlocker {
+        private boolean finished;
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (finished) {
+                return false;
+            }
+            long h = head;
+            if (h == tailCache && (tailCache = awaitElement(h)) == h) {
+                // 기다리는 동안 채널이 취소되었다.
+                finished = true;
+                return false;
+            }
+            return consume(h, action);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            while (!finished) {
+                long h = head;
+                if (h == tailCache && (tailCache = awaitElement(h)) == h) {
+                    finished = true;
+                    return;
+                }
+                // 한 번 읽은 tail까지는 다시 volatile 읽기 없이 소비한다.
+                for (long available = tailCache; h < available; h++) {
+                    if (!consume(h, action)) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean consume(long h, Consumer<? super T> action) {
+            int i = offset(h);
+            Object e = buffer[i];
+            buffer[i] = null;
+            // 슬롯을 비운 뒤에 head를 공개해야 생산자가 아직 읽지 않은 슬롯을 덮어쓰지 않는다.
+            HEAD.setRelease(SpscRingChannel.this, h + 1);
+            if (e == END_OF_STREAM) {
+                finished = true;
+                return false;
+            }
+            metrics.consumed++;
+            action.accept((T) e);
+            return true;
+        }
+
+        /**
+         * 새 요소가 공개될 때까지 기다렸다가 tail을 반환한다. 채널이 취소되면 h를 그대로 반환한다.
+         */
+        private long awaitElement(long h) {
+            long t = (long) TAIL.getAcquire(SpscRingChannel.this);
+            if (t != h || cancelled) {
+                return t;
+            }
+            // 링이 실제로 비어 있을 때만 기다린 시간을 잰다.
+            long start = System.nanoTime();
+            try {
+                for (int i = 0; i < SPINS + YIELDS; i++) {
+                    backoff(i);
+                    t = (long) TAIL.getAcquire(SpscRingChannel.this);
+                    if (t != h || cancelled) {
+                        return t;
+                    }
+                }
+                while (true) {
+                    try {
+                        ForkJoinPool.managedBlock(this);
+                        return (long) TAIL.getAcquire(SpscRingChannel.this);
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+            } finally {
+                metrics.blockedNanos += System.nanoTime() - start;
+            }
+        }
+
+        @Override
+        public boolean block() {
+            for (int i = SPINS + YIELDS; !isReleasable(); i++) {
+                backoff(i);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return (long) TAIL.getAcquire(SpscRingChannel.this) != head || cancelled;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED;
+        }
+    }
+
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(SpscRingConsumerFields.class, "head", long.class);
+            TAIL = lookup.findVarHandle(SpscRingProducerFields.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
+
+/**
+ * 필드는 상위 클래스의 것부터 배치되므로 상속 계층 사이에 long 필드를 채워 넣어 head와 tail을
+ * 서로 다른 캐시 라인(앞뒤 128바이트)에 둔다.
+ */
+abstract class SpscRingPad0 {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    long p08, p09, p0a, p0b, p0c, p0d, p0e, p0f;
+}
+
+abstract class SpscRingProducerFields extends SpscRingPad0 {
+    // 생산자만 쓴다. headCache는 생산자가 마지막으로 읽은 head로, 링이 가득 찼다고 판단될 때만 다시 읽는다.
+    volatile long tail;
+    long headCache;
+}
+
+abstract class SpscRingPad1 extends SpscRingProducerFields {
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+    long p18, p19, p1a, p1b, p1c, p1d, p1e, p1f;
+}
+
+abstract class SpscRingConsumerFields extends SpscRingPad1 {
+    // 소비자만 쓴다. tailCache는 소비자가 마지막으로 읽은 tail로, 링이 비었다고 판단될 때만 다시 읽는다.
+    volatile long head;
+    long tailCache;
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+    long p28, p29, p2a, p2b, p2c, p2d, p2e, p2f;
+}
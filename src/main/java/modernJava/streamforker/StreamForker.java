@@ -5,8 +5,9 @@ import modernJava.Dish;
 
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -14,132 +15,303 @@ import static java.util.Arrays.asList;
 import static java.util.stream.Collectors.*;
 
 public class StreamForker<T> {
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = Thread.ofVirtual().name("stream-forker-", 0).factory();
+    static final Executor VIRTUAL_THREAD_PER_FORK = task -> VIRTUAL_THREAD_FACTORY.newThread(task).start();
+
     private final Stream<T> stream;
     private final Map<Object, Function<Stream<T>, ?>> forks = new HashMap<>();
+    private final Set<Object> unorderedForks = new HashSet<>();
+    private final Map<Object, Collector<? super T, ?, ?>> combinableForks = new LinkedHashMap<>();
+    private int capacity = Integer.MAX_VALUE;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private Transport transport = Transport.QUEUE;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private Executor executor;
+    private ForkJoinPool producerPool;
+    private ForkListener listener;
 
     public StreamForker(Stream<T> stream) {
         this.stream = stream;
     }
 
+    /**
+     * 포크마다 최대 capacity개의 요소만 버퍼에 쌓아두도록 제한한다. 버퍼가 가득 차면 생산자는 포크가 요소를 소비할 때까지 대기한다.
+     * {@link Transport#CHUNKED}이면 큐에 쌓이는 요소가 capacity개 이하이고, 그 밖에 생산자마다 아직 큐에 넣지 않은
+     * 청크 하나(최대 min(chunkSize, capacity)개)를 모아둔다.
+     */
+    public StreamForker<T> bounded(int capacity) {
+        return bounded(capacity, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * 포크마다 최대 capacity개의 요소만 버퍼에 쌓아두도록 제한하고, 버퍼가 가득 찼을 때의 동작을 지정한다.
+     * 기본값은 크기 제한이 없는 버퍼로, 느린 포크가 있으면 입력 전체가 포크 수만큼 힙에 쌓일 수 있다.
+     */
+    public StreamForker<T> bounded(int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+        return this;
+    }
+
+    /**
+     * 생산자가 요소를 포크로 전달하는 방식을 지정한다. 기본값은 요소 하나씩 전달하는 {@link Transport#QUEUE}다.
+     */
+    public StreamForker<T> transport(Transport transport) {
+        this.transport = Objects.requireNonNull(transport);
+        return this;
+    }
+
+    /**
+     * {@link Transport#CHUNKED}로 전달할 때 한 번에 옮기는 요소의 수, {@link #bounded(int)}로 지정한 용량보다 크면 용량으로 줄인다.
+     */
+    public StreamForker<T> chunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * 포크 태스크를 실행할 Executor를 지정한다. 지정하지 않으면 {@link CompletableFuture#supplyAsync(Supplier)}의 기본 풀인
+     * 공용 ForkJoinPool에서 실행되는데, 포크 태스크는 요소를 기다리며 블로킹하므로 같은 JVM의 다른 병렬 스트림과 워커를 나눠 쓰게 된다.
+     * 포크 수보다 스레드가 적은 풀을 지정하면 시작하지 못한 포크의 버퍼가 차서 생산자가 멈출 수 있다.
+     */
+    public StreamForker<T> executor(Executor executor) {
+        this.executor = Objects.requireNonNull(executor);
+        return this;
+    }
+
+    /**
+     * 포크마다 가상 스레드를 하나씩 만들어 실행한다. 가상 스레드는 요소를 기다리며 블로킹하는 동안 캐리어 스레드를 놓아주므로
+     * 포크 수가 많아도 플랫폼 스레드나 공용 ForkJoinPool의 워커를 점유하지 않는다.
+     */
+    public StreamForker<T> virtualThreads() {
+        return executor(VIRTUAL_THREAD_PER_FORK);
+    }
+
+    /**
+     * 원본 스트림을 여러 조각으로 나눠서 공용 ForkJoinPool의 여러 스레드가 동시에 포크로 전달한다.
+     * 생산자가 여럿이므로 요소가 도착하는 순서가 섞인다. 따라서 {@link #forkUnordered}나 {@link #forkCombinable}로
+     * 등록한 포크만 사용할 수 있고, 생산자가 하나뿐인 {@link Transport#SPSC_RING}과는 함께 사용할 수 없다.
+     */
+    public StreamForker<T> parallel() {
+        return parallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 원본 스트림을 주어진 ForkJoinPool에서 병렬로 탐색한다.
+     */
+    public StreamForker<T> parallel(ForkJoinPool producerPool) {
+        this.producerPool = Objects.requireNonNull(producerPool);
+        return this;
+    }
+
+    /**
+     * 포크가 끝날 때마다 통계를 전달받을 리스너를 지정한다. 외부 모니터링 시스템으로 통계를 내보낼 때 사용한다.
+     */
+    public StreamForker<T> listener(ForkListener listener) {
+        this.listener = Objects.requireNonNull(listener);
+        return this;
+    }
+
     public StreamForker<T> fork(Object key, Function<Stream<T>, ?> block) {
         // 스트림에 적용할 함수를 저장하고, 이 메서드를 여러 번 호출할 수 있도록 자기 자신을 반환한다.
+        combinableForks.remove(key);
+        unorderedForks.remove(key);
         forks.put(key, block);
         return this;
     }
 
+    /**
+     * 요소가 도착하는 순서에 의존하지 않는 포크를 등록한다. 병렬 모드에서는 여러 생산자가 넣은 요소를 순서 없이 받는다.
+     */
+    public StreamForker<T> forkUnordered(Object key, Function<Stream<T>, ?> block) {
+        fork(key, block);
+        unorderedForks.add(key);
+        return this;
+    }
+
+    /**
+     * 부분 결과를 합칠 수 있는 포크를 Collector로 등록한다. 채널과 포크 태스크 없이 생산자 스레드에서 바로 누적하고,
+     * 병렬 모드에서는 생산자마다 따로 누적한 결과를 원본 스트림의 순서대로 combiner로 합친다.
+     */
+    public StreamForker<T> forkCombinable(Object key, Collector<? super T, ?, ?> collector) {
+        forks.remove(key);
+        unorderedForks.remove(key);
+        combinableForks.put(key, Objects.requireNonNull(collector));
+        return this;
+    }
+
     public Results getResults() {
-        ForkingStreamConsumer<T> consumer = build();
+        ForkResults<T> results = start();
+        produce(results);
+        return results;
+    }
+
+    /**
+     * 원본 스트림 탐색을 백그라운드에서 시작하고 바로 Results를 반환한다. 탐색하는 동안에도
+     * {@link Results#cancel()}로 멈추거나 {@link Results#get(Object, long, TimeUnit)}으로 기다리는 시간을 제한할 수 있다.
+     * 순차 모드의 생산자는 {@link #executor(Executor)}로 지정한 Executor에서, 지정하지 않았으면 공용 ForkJoinPool에서 실행된다.
+     */
+    public Results getResultsAsync() {
+        ForkResults<T> results = start();
+        // 탐색 중 발생한 예외는 results에 기록되어 get에서 다시 던진다.
+        CompletableFuture.runAsync(() -> produce(results), executor == null ? ForkJoinPool.commonPool() : executor);
+        return results;
+    }
+
+    private ForkResults<T> start() {
+        if (producerPool != null) {
+            checkParallelForks();
+        }
+        return build();
+    }
+
+    private void produce(ForkResults<T> results) {
         try {
-            stream.sequential().forEach(consumer);
+            results.complete(producerPool == null ? produceSequentially(results) : produceInParallel(results));
+        } catch (RuntimeException | Error e) {
+            results.fail(e);
+            throw e;
         } finally {
-            consumer.finish();
+            // 스트림의 끝을 알리는 마지막 요소를 아직 끝나지 않은 모든 채널에 전달, 넘침 정책과 관계없이 전달되어야 한다.
+            results.close();
         }
+    }
+
+    private ForkingStreamConsumer<T> produceSequentially(ForkResults<T> results) {
+        ForkingStreamConsumer<T> consumer = results.newConsumer();
+        // 모든 포크가 끝났거나 취소되면 원본 스트림을 더 탐색하지 않는다.
+        stream.sequential().takeWhile(t -> !results.isDone()).forEach(consumer);
+        consumer.flush();
         return consumer;
     }
 
-    public ForkingStreamConsumer<T> build() {
-        List<BlockingQueue<T>> queues = new ArrayList<>();
-        Map<Object, Future<?>> actions =
-                forks.entrySet().stream().reduce(
-                        new HashMap<Object, Future<?>>(),
-                        (map, e) -> {
-                            map.put(e.getKey(),
-                                    getOperationResult(queues, e.getValue()));
-                            return map;
-                        },
-                        (m1, m2) -> {
-                            m1.putAll(m2);
-                            return m1;
-                        });
-        return new ForkingStreamConsumer<>(queues, actions);
+    private ForkingStreamConsumer<T> produceInParallel(ForkResults<T> results) {
+        Spliterator<T> spliterator = stream.parallel().spliterator();
+        // 병렬 스트림과 같은 기준으로, 스레드마다 4개 정도의 조각이 돌아갈 때까지 분할한다.
+        long targetSize = Math.max(1, spliterator.estimateSize() / ((long) producerPool.getParallelism() << 2));
+        return producerPool.invoke(new ProducerTask<>(spliterator, results, targetSize));
+    }
+
+    private void checkParallelForks() {
+        for (Object key : forks.keySet()) {
+            if (!unorderedForks.contains(key)) {
+                throw new IllegalStateException(
+                        "fork '" + key + "' depends on encounter order; use forkUnordered or forkCombinable in parallel mode");
+            }
+        }
+        if (transport == Transport.SPSC_RING && !forks.isEmpty()) {
+            throw new IllegalStateException("SPSC_RING allows a single producer and cannot be used in parallel mode");
+        }
     }
 
-    private Future<?> getOperationResult(List<BlockingQueue<T>> queues, Function<Stream<T>, ?> block) {
-        BlockingQueue<T> queue = new LinkedBlockingQueue<>();
-        queues.add(queue);
+    private ForkResults<T> build() {
+        Map<Object, ForkChannel<T>> channels = new LinkedHashMap<>();
+        forks.keySet().forEach(key -> channels.put(key, newChannel(key)));
+        ForkResults<T> results = new ForkResults<>(channels, combinableForks, listener);
+        forks.forEach((key, block) -> results.register(key, getOperationResult(results, key, channels.get(key), block)));
+        return results;
+    }
 
-        // 큐의 요소를 탐색하는 Spliterator 생성
-        Spliterator<T> spliterator = new BlockingQueueSpliterator<>(queue);
+    private Future<?> getOperationResult(ForkResults<T> results, Object key, ForkChannel<T> channel, Function<Stream<T>, ?> block) {
+        // 채널의 요소를 탐색하는 Spliterator 생성
+        Spliterator<T> spliterator = channel.spliterator();
 
         // Spliterator를 소스로 갖는 스트림을 생성
         Stream<T> source = StreamSupport.stream(spliterator, false);
 
         // 스트림에서 주어진 함수를 비동기로 적용해서 결과를 얻을 Future 생성
-        return CompletableFuture.supplyAsync(() -> block.apply(source));
+        Supplier<?> task = () -> results.runFork(key, channel, () -> block.apply(source));
+        return executor == null ? CompletableFuture.supplyAsync(task) : CompletableFuture.supplyAsync(task, executor);
+    }
+
+    private ForkChannel<T> newChannel(Object key) {
+        return switch (transport) {
+            case QUEUE -> new QueueChannel<>(key, capacity, overflowPolicy);
+            case CHUNKED -> new ChunkedChannel<>(key, capacity, chunkSize, overflowPolicy);
+            case SPSC_RING -> new SpscRingChannel<>(key, capacity, overflowPolicy);
+        };
     }
 
     public static interface Results {
         public <R> R get(Object key);
-    }
 
-    private static class ForkingStreamConsumer<T> implements Consumer<T>, Results {
-        static final Object END_OF_STREAM = new Object();
+        /**
+         * 최대 timeout만큼 키에 대응하는 포크의 결과를 기다린다.
+         *
+         * @throws TimeoutException 시간 안에 포크가 끝나지 않은 경우, 포크는 계속 실행되므로 필요하면 {@link #cancel(Object)}를 호출한다.
+         */
+        public <R> R get(Object key, long timeout, TimeUnit unit) throws TimeoutException;
 
-        private final List<BlockingQueue<T>> queues;
-        private final Map<Object, Future<?>> actions;
+        /**
+         * 키에 대응하는 포크를 취소한다. 해당 포크로는 더 이상 요소를 전달하지 않고, 결과를 요청하면 예외가 발생한다.
+         *
+         * @return 포크가 취소된 상태이면 true, 취소하기 전에 이미 끝났으면 false
+         */
+        public boolean cancel(Object key);
 
-        public ForkingStreamConsumer(List<BlockingQueue<T>> queues, Map<Object, Future<?>> actions) {
-            this.queues = queues;
-            this.actions = actions;
-        }
+        /**
+         * 모든 포크를 취소하고 원본 스트림 탐색을 멈춘다.
+         */
+        public void cancel();
 
-        @Override
-        public void accept(T t) {
-            // 스트림에서 탐색한 요소를 모든 큐로 전달
-            queues.forEach(queue -> queue.add(t));
-        }
+        /**
+         * 키에 대응하는 포크의 실행 통계, 어느 포크가 원본 스트림 탐색을 늦추는지 확인할 때 사용한다.
+         * 포크가 아직 실행 중이면 조회한 시점까지의 값을 반환한다.
+         */
+        public ForkStats stats(Object key);
 
-        @Override
-        public <R> R get(Object key) {
-            try {
-                // 키에 대응하는 동작의 결과를 반환, Future의 계산 완료 대기
-                return ((Future<R>) actions.get(key)).get();
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-        }
+        /**
+         * 키에 대응하는 포크의 버퍼에 쌓여 있는, 아직 소비되지 않은 요소의 수
+         */
+        public int queueDepth(Object key);
 
-        void finish() {
-            // 스트림의 끝을 알리는 마지막 요소를 큐에 삽입
-            accept((T) END_OF_STREAM);
-        }
+        /**
+         * {@link OverflowPolicy#DROP} 정책으로 키에 대응하는 포크에서 버려진 요소의 수
+         */
+        public long droppedCount(Object key);
     }
 
-    private record BlockingQueueSpliterator<T>(BlockingQueue<T> queue) implements Spliterator<T> {
+    /**
+     * 원본 스트림의 Spliterator를 분할해서 조각마다 생산자를 하나씩 실행하고, 조각의 누적 결과를 합친다.
+     */
+    private static final class ProducerTask<T> extends RecursiveTask<ForkingStreamConsumer<T>> {
+        private final Spliterator<T> spliterator;
+        private final ForkResults<T> results;
+        private final long targetSize;
 
-        @Override
-            public boolean tryAdvance(Consumer<? super T> action) {
-                T t;
-                while (true) {
-                    try {
-                        t = queue.take();
-                        break;
-                    } catch (InterruptedException ignored) {
-                    }
-                }
+        ProducerTask(Spliterator<T> spliterator, ForkResults<T> results, long targetSize) {
+            this.spliterator = spliterator;
+            this.results = results;
+            this.targetSize = targetSize;
+        }
 
-                if (t != ForkingStreamConsumer.END_OF_STREAM) {
-                    action.accept(t);
-                    return true;
+        @Override
+        protected ForkingStreamConsumer<T> compute() {
+            Spliterator<T> prefix;
+            if (results.isDone() || spliterator.estimateSize() <= targetSize || (prefix = spliterator.trySplit()) == null) {
+                ForkingStreamConsumer<T> consumer = results.newConsumer();
+                // 모든 포크가 끝났거나 취소되면 남은 요소를 더 탐색하지 않는다.
+                while (!results.isDone() && spliterator.tryAdvance(consumer)) {
                 }
-                return false;
+                consumer.flush();
+                return consumer;
             }
+            ProducerTask<T> leftTask = new ProducerTask<>(prefix, results, targetSize);
+            leftTask.fork();    // 앞쪽 조각은 다른 스레드에서 비동기로 실행한다.
 
-            @Override
-            public Spliterator<T> trySplit() {
-                return null;
-            }
-
-            @Override
-            public long estimateSize() {
-                return 0;
-            }
-
-            @Override
-            public int characteristics() {
-                return 0;
-            }
+            ProducerTask<T> rightTask = new ProducerTask<>(spliterator, results, targetSize);
+            ForkingStreamConsumer<T> rightResult = rightTask.compute();
+            ForkingStreamConsumer<T> leftResult = leftTask.join();
+            return leftResult.combine(rightResult);
         }
+    }
 
     public static void main(String[] args) {
         List<Dish> menu = asList(
@@ -172,5 +344,15 @@ public class StreamForker<T> {
         System.out.println("Total calories: " + totalCalories);
         System.out.println("Most caloric dish: " + mostCaloricDish);
         System.out.println("Dishes by type: " + dishesByType);
+
+        // 분기마다 드는 비용이 작으면 스레드와 큐 없이 한 번에 누적해도 같은 Results를 얻는다.
+        StreamForker.Results fused = menu.stream()
+                .collect(new MultiCollector<Dish>()
+                        .add("shortMenu", mapping(Dish::getName, joining(", ")))
+                        .add("totalCalories", summingInt(Dish::getCalories))
+                        .add("dishesByType", groupingBy(Dish::getType)));
+
+        System.out.println("Short menu (fused): " + fused.get("shortMenu"));
+        System.out.println("Total calories (fused): " + fused.get("totalCalories"));
     }
 }
@@ -0,0 +1,21 @@
+package modernJava.streamforker;
+
+/**
+ * 생산자가 원본 스트림의 요소를 각 포크로 전달하는 방식
+ */
+public enum Transport {
+    /**
+     * 요소 하나마다 큐에 넣고 꺼낸다. 요소마다 생산자와 포크가 한 번씩 큐의 락을 잡는다.
+     */
+    QUEUE,
+    /**
+     * 생산자가 {@link StreamForker#chunkSize(int)}개의 요소를 배열에 모아서 한 번에 큐에 넣는다.
+     * 락과 스레드를 깨우는 비용을 청크 단위로 나눠 내므로 요소가 많을수록 유리하다.
+     */
+    CHUNKED,
+    /**
+     * 포크마다 생산자 하나, 소비자 하나만 접근하는 배열 링 버퍼로 전달한다. 락과 요소마다의 할당이 없다.
+     * 링의 크기는 {@link StreamForker#bounded(int)}로 지정한 용량을 2의 거듭제곱으로 올린 값이며, 지정하지 않으면 1024다.
+     */
+    SPSC_RING
+}
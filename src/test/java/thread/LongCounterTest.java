@@ -0,0 +1,148 @@
+package thread;
+
+import modernJava.Counter;
+import modernJava.SynchronizedClass;
+import modernJava.counter.CounterType;
+import modernJava.counter.LongCounter;
+import modernJava.counter.PerThreadCounter;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class LongCounterTest {
+    private static final int THREADS = 16;
+    private static final int INCREMENTS = 100_000;
+
+    /**
+     * 모든 스레드가 동시에 시작해서 같은 카운터를 증가시킨다.
+     */
+    private static void hammer(Runnable increment) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                for (int j = 0; j < INCREMENTS; j++) {
+                    increment.run();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    @Test
+    void noLostIncrements() throws InterruptedException {
+        for (CounterType type : CounterType.values()) {
+            if (type == CounterType.RACY) {
+                continue;
+            }
+            LongCounter counter = type.newCounter();
+            hammer(counter::increment);
+            Assertions.assertThat(counter.sum()).as(type.name()).isEqualTo((long) THREADS * INCREMENTS);
+        }
+    }
+
+    @Test
+    void perThreadFlush() throws InterruptedException {
+        PerThreadCounter counter = new PerThreadCounter(1_000);
+        Thread thread = new Thread(() -> {
+            for (int i = 0; i < 2_500; i++) {
+                counter.increment();
+            }
+        });
+        thread.start();
+        thread.join();
+        // 1000번마다 반영하므로 남은 500은 끝난 스레드의 슬롯에만 있다.
+        Assertions.assertThat(counter.flushedSum()).isEqualTo(2_000L);
+        Assertions.assertThat(counter.sum()).isEqualTo(2_500L);
+        Assertions.assertThat(counter.flushedSum()).isEqualTo(2_500L);
+
+        counter.add(7);
+        Assertions.assertThat(counter.flushedSum()).isEqualTo(2_500L);
+        counter.flush();
+        Assertions.assertThat(counter.flushedSum()).isEqualTo(2_507L);
+        Assertions.assertThat(counter.sum()).isEqualTo(2_507L);
+    }
+
+    @Test
+    void concurrentSumOverRetiredSlots() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            PerThreadCounter counter = new PerThreadCounter(1_000);
+            // 스레드마다 반영하지 않은 값 999를 남기고 끝난다.
+            hammerRetired(counter, 64);
+            long expected = 64 * 999L;
+            List<Long> sums = new ArrayList<>();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> readers = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                Thread reader = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    long sum = counter.sum();
+                    synchronized (sums) {
+                        sums.add(sum);
+                    }
+                });
+                reader.start();
+                readers.add(reader);
+            }
+            start.countDown();
+            for (Thread reader : readers) {
+                reader.join();
+            }
+            // 끝난 스레드의 슬롯을 여러 sum이 동시에 옮겨도 각 값은 한 번만 더해진다.
+            Assertions.assertThat(sums).containsOnly(expected);
+            Assertions.assertThat(counter.flushedSum()).isEqualTo(expected);
+        }
+    }
+
+    private static void hammerRetired(PerThreadCounter counter, int threads) throws InterruptedException {
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < 999; j++) {
+                    counter.increment();
+                }
+            });
+            thread.start();
+            thread.join();
+        }
+    }
+
+    @Test
+    void counterAndSynchronizedClass() throws InterruptedException {
+        for (CounterType type : List.of(CounterType.SYNCHRONIZED, CounterType.STRIPED, CounterType.PER_THREAD)) {
+            Counter counter = new Counter(type);
+            SynchronizedClass synchronizedClass = new SynchronizedClass(new Object(), type);
+            ExecutorService executor = Executors.newFixedThreadPool(20);
+            for (int i = 0; i < 10_000; i++) {
+                executor.submit(() -> {
+                    counter.increase();
+                    synchronizedClass.increment();
+                });
+            }
+            executor.shutdown();
+            Assertions.assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+            Assertions.assertThat(counter.count()).as(type.name()).isEqualTo(10_000L);
+            Assertions.assertThat(synchronizedClass.blockCount()).isEqualTo(10_000L);
+            Assertions.assertThat(synchronizedClass.methodCount()).isEqualTo(10_000L);
+        }
+    }
+}
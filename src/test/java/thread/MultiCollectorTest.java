@@ -0,0 +1,75 @@
+package thread;
+
+import modernJava.Dish;
+import modernJava.streamforker.MultiCollector;
+import modernJava.streamforker.StreamForker;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static java.util.stream.Collectors.*;
+
+public class MultiCollectorTest {
+
+    private static final List<Dish> MENU = List.of(
+            new Dish("pork", false, 800, Dish.Type.MEAT),
+            new Dish("beef", false, 700, Dish.Type.MEAT),
+            new Dish("chicken", false, 400, Dish.Type.MEAT),
+            new Dish("french fries", true, 530, Dish.Type.OTHER),
+            new Dish("rice", true, 350, Dish.Type.OTHER),
+            new Dish("season fruit", true, 120, Dish.Type.OTHER),
+            new Dish("pizza", true, 550, Dish.Type.OTHER),
+            new Dish("prawns", false, 400, Dish.Type.FISH),
+            new Dish("salmon", false, 450, Dish.Type.FISH)
+    );
+
+    @Test
+    void sameResultsAsStreamForker() {
+        // 스레드로 나눠 실행한 결과와 한 번에 누적한 결과가 같다.
+        StreamForker.Results forked = new StreamForker<>(MENU.stream())
+                .fork("shortMenu", s -> s.map(Dish::getName).collect(joining(", ")))
+                .fork("totalCalories", s -> s.mapToInt(Dish::getCalories).sum())
+                .fork("dishesByType", s -> s.collect(groupingBy(Dish::getType)))
+                .getResults();
+        StreamForker.Results fused = MENU.stream()
+                .collect(new MultiCollector<Dish>()
+                        .add("shortMenu", mapping(Dish::getName, joining(", ")))
+                        .add("totalCalories", summingInt(Dish::getCalories))
+                        .add("dishesByType", groupingBy(Dish::getType)));
+
+        for (String key : List.of("shortMenu", "totalCalories", "dishesByType")) {
+            Assertions.assertThat(fused.<Object>get(key)).isEqualTo(forked.get(key));
+        }
+        Assertions.assertThat(fused.stats("totalCalories").elementsConsumed()).isEqualTo((long) MENU.size());
+    }
+
+    @Test
+    void parallel() {
+        // 병렬 스트림에서는 Collector마다 combiner로 합치며, 순서가 있는 Collector도 원본 순서를 유지한다.
+        StreamForker.Results results = LongStream.rangeClosed(1, 100_000).boxed().parallel()
+                .collect(new MultiCollector<Long>()
+                        .add("sum", summingLong(Long::longValue))
+                        .add("list", toList())
+                        .add("byMod", groupingBy(n -> n % 3, counting())));
+
+        Assertions.assertThat(results.<Long>get("sum")).isEqualTo(5000050000L);
+        Assertions.assertThat(results.<List<Long>>get("list"))
+                .isEqualTo(LongStream.rangeClosed(1, 100_000).boxed().toList());
+        Assertions.assertThat(results.<Map<Long, Long>>get("byMod"))
+                .isEqualTo(Map.of(0L, 33_333L, 1L, 33_334L, 2L, 33_333L));
+        Assertions.assertThat(results.stats("sum").elementsConsumed()).isEqualTo(100_000L);
+    }
+
+    @Test
+    void unknownKey() {
+        StreamForker.Results results = MENU.stream()
+                .collect(new MultiCollector<Dish>().add("count", counting()));
+
+        Assertions.assertThat(results.<Long>get("count")).isEqualTo((long) MENU.size());
+        Assertions.assertThatThrownBy(() -> results.get("none"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
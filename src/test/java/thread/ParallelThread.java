@@ -1,12 +1,25 @@
 package thread;
 
+import modernJava.ForkJoinArrayReducer;
+import modernJava.ForkJoinPrefixScan;
 import modernJava.ForkJoinSumCalculator;
+import modernJava.LeafKernel;
+import modernJava.MappedFileWordCounter;
+import modernJava.WordCountEngine;
 import modernJava.WordCounter;
 import modernJava.WordCounterSpliterator;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 import java.util.concurrent.*;
+import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
@@ -44,6 +57,87 @@ public class ParallelThread {
 //        ForkJoinPool-1-worker-6 start: 0, end: 12500
     }
 
+    @Test
+    void forkJoinArrayReducer() {
+        long[] longs = LongStream.rangeClosed(1, 1_000_000).toArray();
+        Assertions.assertThat(ForkJoinArrayReducer.reduce(longs, ForkJoinArrayReducer.LongOp.SUM)).isEqualTo(500000500000L);
+        Assertions.assertThat(ForkJoinArrayReducer.reduce(longs, ForkJoinArrayReducer.LongOp.MAX)).isEqualTo(1_000_000L);
+        Assertions.assertThat(ForkJoinArrayReducer.reduce(longs, 10, 20, ForkJoinArrayReducer.LongOp.MIN, ForkJoinPool.commonPool()))
+                .isEqualTo(11L);
+        // 사용자 정의 연산, 0 ^ x = x이므로 0이 항등원이다.
+        Assertions.assertThat(ForkJoinArrayReducer.reduce(longs, new ForkJoinArrayReducer.LongOp(0, (a, b) -> a ^ b)))
+                .isEqualTo(LongStream.of(longs).reduce(0, (a, b) -> a ^ b));
+
+        int[] ints = IntStream.range(0, 1_000_000).map(i -> (i * 31) % 1_000_003 - 500_000).toArray();
+        Assertions.assertThat(ForkJoinArrayReducer.reduce(ints, ForkJoinArrayReducer.IntOp.MIN)).isEqualTo(IntStream.of(ints).min().getAsInt());
+        Assertions.assertThat(ForkJoinArrayReducer.reduce(ints, ForkJoinArrayReducer.IntOp.SUM)).isEqualTo(IntStream.of(ints).sum());
+
+        double[] doubles = LongStream.rangeClosed(1, 1_000_000).asDoubleStream().toArray();
+        Assertions.assertThat(ForkJoinArrayReducer.reduce(doubles, ForkJoinArrayReducer.DoubleOp.SUM)).isEqualTo(500000500000.0);
+        Assertions.assertThat(ForkJoinArrayReducer.reduce(new double[0], ForkJoinArrayReducer.DoubleOp.MAX)).isEqualTo(Double.NEGATIVE_INFINITY);
+    }
+
+    @Test
+    void leafKernels() {
+        // 레지스터 폭으로 나누어 떨어지지 않는 나머지와 시작 위치가 정렬되지 않은 구간도 확인한다.
+        long[] longs = LongStream.range(0, 10_007).map(i -> (i * 7919) % 10_009 - 5_000).toArray();
+        int[] ints = IntStream.range(0, 10_007).map(i -> (i * 31) % 10_009 - 5_000).toArray();
+        double[] doubles = IntStream.range(0, 10_007).asDoubleStream().toArray();
+        for (LeafKernel kernel : List.of(LeafKernel.scalar(), LeafKernel.preferred())) {
+            for (int from : new int[]{0, 3}) {
+                for (int to : new int[]{from, from + 1, from + 17, longs.length}) {
+                    Assertions.assertThat(kernel.sum(longs, from, to)).isEqualTo(LongStream.of(longs).skip(from).limit(to - from).sum());
+                    Assertions.assertThat(kernel.min(longs, from, to)).isEqualTo(LongStream.of(longs).skip(from).limit(to - from).min().orElse(Long.MAX_VALUE));
+                    Assertions.assertThat(kernel.max(ints, from, to)).isEqualTo(IntStream.of(ints).skip(from).limit(to - from).max().orElse(Integer.MIN_VALUE));
+                    Assertions.assertThat(kernel.sum(ints, from, to)).isEqualTo(IntStream.of(ints).skip(from).limit(to - from).sum());
+                    // 정수 값만 더하므로 덧셈 순서가 달라도 오차가 없다.
+                    Assertions.assertThat(kernel.sum(doubles, from, to)).isEqualTo(DoubleStream.of(doubles).skip(from).limit(to - from).sum());
+                }
+            }
+        }
+
+        long[] numbers = LongStream.rangeClosed(1, 1_000_000).toArray();
+        Assertions.assertThat(ForkJoinPool.commonPool().invoke(new ForkJoinSumCalculator(numbers, LeafKernel.scalar())))
+                .isEqualTo(500000500000L);
+        Assertions.assertThat(ForkJoinPool.commonPool().invoke(new ForkJoinSumCalculator(numbers))).isEqualTo(500000500000L);
+        Assertions.assertThat(ForkJoinPool.commonPool().invoke(new ForkJoinSumCalculator(numbers, 1, LeafKernel.scalar())))
+                .isEqualTo(500000500000L);
+        // 0 이하의 임계값은 길이 1인 구간까지 계속 분할하므로 받지 않는다.
+        Assertions.assertThatThrownBy(() -> new ForkJoinSumCalculator(numbers, 0, LeafKernel.scalar()))
+                .isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThat(ForkJoinArrayReducer.reduce(numbers, 0, numbers.length, ForkJoinArrayReducer.LongOp.MIN,
+                ForkJoinPool.commonPool(), LeafKernel.scalar())).isEqualTo(1L);
+    }
+
+    @Test
+    void prefixScan() {
+        long[] source = LongStream.range(0, 1_000_003).map(i -> (i * 7919) % 1_009 - 500).toArray();
+        long[] expected = source.clone();
+        Arrays.parallelPrefix(expected, Long::sum);
+
+        long[] inclusive = source.clone();
+        Assertions.assertThat(ForkJoinPrefixScan.inclusiveScan(inclusive)).isEqualTo(LongStream.of(source).sum());
+        Assertions.assertThat(inclusive).isEqualTo(expected);
+
+        long[] exclusive = source.clone();
+        Assertions.assertThat(ForkJoinPrefixScan.exclusiveScan(exclusive)).isEqualTo(LongStream.of(source).sum());
+        Assertions.assertThat(exclusive[0]).isZero();
+        for (int i = 1; i < source.length; i++) {
+            Assertions.assertThat(exclusive[i]).isEqualTo(expected[i - 1]);
+        }
+
+        // 구간만 스캔하고 나머지 요소는 그대로 둔다.
+        long[] range = source.clone();
+        long[] expectedMax = source.clone();
+        Arrays.parallelPrefix(expectedMax, 10, 900_000, Math::max);
+        ForkJoinPrefixScan.inclusiveScan(range, 10, 900_000, ForkJoinArrayReducer.LongOp.MAX, ForkJoinPool.commonPool());
+        Assertions.assertThat(range).isEqualTo(expectedMax);
+
+        long[] small = {3, 1, 4, 1, 5};
+        Assertions.assertThat(ForkJoinPrefixScan.exclusiveScan(small)).isEqualTo(14L);
+        Assertions.assertThat(small).containsExactly(0L, 3L, 4L, 8L, 9L);
+    }
+
     private int countWordsIteratively(String s) {
         int counter = 0;
         boolean lastSpace = true;
@@ -88,4 +182,80 @@ public class ParallelThread {
         Assertions.assertThat(reduce2.getCounter()).isEqualTo(12);
     }
 
+    @Test
+    void wordCountEngine() {
+        final String content = "Lorem Ipsum is    simply   dummy text of   the   printing and typesetting industry.";
+        Assertions.assertThat(WordCountEngine.count(content)).isEqualTo(12);
+        Assertions.assertThat(WordCountEngine.count(content.toCharArray())).isEqualTo(12);
+
+        // 공백 종류와 단어 길이가 섞인 텍스트에서 반복문, WordCounter 리듀스와 같은 결과를 낸다.
+        String text = randomText(200_000);
+        int expected = countWordsIteratively(text);
+        WordCounter reduce = IntStream.range(0, text.length()).mapToObj(text::charAt).reduce(
+                new WordCounter(0, true),
+                WordCounter::accumulate,
+                WordCounter::combine
+        );
+        Assertions.assertThat(reduce.getCounter()).isEqualTo(expected);
+        Assertions.assertThat(WordCountEngine.count(text)).isEqualTo(expected);
+
+        // 단어 중간에서 나눈 구간도 combine으로 합치면 같은 결과가 된다.
+        char[] chars = text.toCharArray();
+        for (int segmentSize : new int[]{1, 7, 1_000, chars.length + 1}) {
+            Assertions.assertThat(WordCountEngine.countParallel(chars, segmentSize)).isEqualTo(expected);
+        }
+        long left = WordCountEngine.segment(text, 0, 1_234);
+        long right = WordCountEngine.segment(text, 1_234, text.length());
+        Assertions.assertThat(WordCountEngine.words(WordCountEngine.combine(left, right))).isEqualTo(expected);
+    }
+
+    @Test
+    void wordCounterSpliterator() {
+        // 작은 한계값으로 잘게 나눠도 분할은 공백에서만 일어나므로 결과가 같다.
+        String text = randomText(200_000);
+        int expected = countWordsIteratively(text);
+        for (WordCounterSpliterator spliterator : new WordCounterSpliterator[]{
+                new WordCounterSpliterator(text), new WordCounterSpliterator(text, 16)}) {
+            WordCounter reduce = StreamSupport.stream(spliterator, true).reduce(
+                    new WordCounter(0, true),
+                    WordCounter::accumulate,
+                    WordCounter::combine
+            );
+            Assertions.assertThat(reduce.getCounter()).isEqualTo(expected);
+        }
+
+        // 빈 문자열은 요소 없이 끝난다.
+        Assertions.assertThat(StreamSupport.stream(new WordCounterSpliterator(""), false).count()).isZero();
+    }
+
+    @Test
+    void mappedFileWordCount() throws IOException {
+        // 여러 바이트로 인코딩되는 한글과 U+2003 공백이 섞인 파일도 문자열로 센 결과와 같다.
+        String text = randomText(500_000);
+        Path file = Files.createTempFile("words", ".txt");
+        try {
+            Files.writeString(file, text, StandardCharsets.UTF_8);
+            int expected = countWordsIteratively(text);
+            Assertions.assertThat(MappedFileWordCounter.countWords(file)).isEqualTo((long) expected);
+            // 작은 구간으로 많이 나눠도 공백에서만 나누므로 결과가 같다.
+            Assertions.assertThat(MappedFileWordCounter.countWords(file, 64)).isEqualTo((long) expected);
+        } finally {
+            Files.delete(file);
+        }
+
+        // 수 GB 파일의 단어 수는 int를 넘으므로 long으로 합치고, int로 읽으려 하면 값이 돌지 않고 실패한다.
+        WordCounter large = new WordCounter(Integer.MAX_VALUE, true).combine(new WordCounter(1, true));
+        Assertions.assertThat(large.getLongCounter()).isEqualTo(1L << 31);
+        Assertions.assertThatThrownBy(large::getCounter).isInstanceOf(ArithmeticException.class);
+    }
+
+    private static String randomText(int length) {
+        char[] alphabet = {'a', 'b', 'Z', '가', ' ', ' ', '\t', '\n', '\u2003', '.'};
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet[random.nextInt(alphabet.length)]);
+        }
+        return sb.toString();
+    }
 }
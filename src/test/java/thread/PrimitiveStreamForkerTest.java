@@ -0,0 +1,111 @@
+package thread;
+
+import modernJava.streamforker.DoubleStreamForker;
+import modernJava.streamforker.IntStreamForker;
+import modernJava.streamforker.LongStreamForker;
+import modernJava.streamforker.OverflowPolicy;
+import modernJava.streamforker.StreamForker;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.IntSummaryStatistics;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+public class PrimitiveStreamForkerTest {
+
+    private static final int SIZE = 100_000;
+
+    @Test
+    void intStream() {
+        // 청크 크기로 나누어 떨어지지 않는 요소 수도 순서대로 모두 전달된다.
+        StreamForker.Results results = new IntStreamForker(IntStream.rangeClosed(1, SIZE))
+                .chunkSize(7)
+                .bounded(64)
+                .fork("sum", s -> s.asLongStream().sum())
+                .fork("stats", IntStream::summaryStatistics)
+                .fork("array", IntStream::toArray)
+                .fork("iterator", s -> {
+                    // forEachRemaining 대신 tryAdvance로 탐색하는 경우
+                    long count = 0;
+                    for (var it = s.iterator(); it.hasNext(); it.nextInt()) {
+                        count++;
+                    }
+                    return count;
+                })
+                .getResults();
+
+        Assertions.assertThat(results.<Long>get("sum")).isEqualTo(5000050000L);
+        IntSummaryStatistics stats = results.get("stats");
+        Assertions.assertThat(stats.getMin()).isEqualTo(1);
+        Assertions.assertThat(stats.getMax()).isEqualTo(SIZE);
+        Assertions.assertThat(results.<int[]>get("array")).containsExactly(IntStream.rangeClosed(1, SIZE).toArray());
+        Assertions.assertThat(results.<Long>get("iterator")).isEqualTo((long) SIZE);
+        Assertions.assertThat(results.queueDepth("sum")).isZero();
+    }
+
+    @Test
+    void longStream() {
+        StreamForker.Results results = new LongStreamForker(LongStream.rangeClosed(1, SIZE))
+                .bounded(1_024)
+                .fork("sum", LongStream::sum)
+                .fork("max", s -> s.max().getAsLong())
+                .fork("first", s -> s.findFirst().getAsLong())
+                .getResults();
+
+        Assertions.assertThat(results.<Long>get("sum")).isEqualTo(5000050000L);
+        Assertions.assertThat(results.<Long>get("max")).isEqualTo((long) SIZE);
+        Assertions.assertThat(results.<Long>get("first")).isEqualTo(1L);
+    }
+
+    @Test
+    void doubleStream() {
+        StreamForker.Results results = new DoubleStreamForker(IntStream.rangeClosed(1, SIZE).asDoubleStream())
+                .virtualThreads()
+                .fork("average", s -> s.average().getAsDouble())
+                .fork("count", DoubleStream::count)
+                .getResults();
+
+        Assertions.assertThat(results.<Double>get("average")).isEqualTo((SIZE + 1) / 2.0);
+        Assertions.assertThat(results.<Long>get("count")).isEqualTo((long) SIZE);
+    }
+
+    @Test
+    void boundedDrop() {
+        StreamForker.Results results = new IntStreamForker(IntStream.rangeClosed(1, SIZE))
+                .chunkSize(10)
+                .bounded(20, OverflowPolicy.DROP)
+                .fork("slow", s -> s.peek(PrimitiveStreamForkerTest::sleepOccasionally).count())
+                .getResults();
+
+        long consumed = results.get("slow");
+        Assertions.assertThat(consumed + results.droppedCount("slow")).isEqualTo((long) SIZE);
+    }
+
+    @Test
+    void boundedDepth() throws InterruptedException {
+        // 기본 청크 크기가 용량보다 커도 큐에는 용량 이상 쌓이지 않는다.
+        StreamForker.Results results = new IntStreamForker(IntStream.rangeClosed(1, SIZE))
+                .bounded(10)
+                .fork("slow", s -> s.peek(PrimitiveStreamForkerTest::sleepOccasionally).count())
+                .getResultsAsync();
+
+        while (!results.stats("slow").isFinished()) {
+            Assertions.assertThat(results.queueDepth("slow")).isLessThanOrEqualTo(10);
+            Thread.sleep(1);
+        }
+        Assertions.assertThat(results.<Long>get("slow")).isEqualTo((long) SIZE);
+        Assertions.assertThat(results.stats("slow").peakQueueDepth()).isBetween(1, 10);
+    }
+
+    private static void sleepOccasionally(int value) {
+        if (value % 1_000 == 0) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
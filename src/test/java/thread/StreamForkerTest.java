@@ -0,0 +1,366 @@
+package thread;
+
+import modernJava.streamforker.ForkStats;
+import modernJava.streamforker.OverflowPolicy;
+import modernJava.streamforker.StreamForker;
+import modernJava.streamforker.Transport;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.*;
+
+public class StreamForkerTest {
+
+    private static final int SIZE = 100_000;
+
+    @Test
+    void boundedBlock() {
+        // 버퍼 크기가 작아도 BLOCK 정책이면 모든 포크가 전체 요소를 받는다.
+        StreamForker.Results results = new StreamForker<>(LongStream.rangeClosed(1, SIZE).boxed())
+                .bounded(16)
+                .fork("sum", s -> s.mapToLong(Long::longValue).sum())
+                .fork("count", s -> s.count())
+                .fork("max", s -> s.max(Long::compare).get())
+                .getResults();
+
+        Assertions.assertThat(results.<Long>get("sum")).isEqualTo(5000050000L);
+        Assertions.assertThat(results.<Long>get("count")).isEqualTo((long) SIZE);
+        Assertions.assertThat(results.<Long>get("max")).isEqualTo((long) SIZE);
+        Assertions.assertThat(results.queueDepth("sum")).isZero();
+        Assertions.assertThat(results.droppedCount("sum")).isZero();
+    }
+
+    @Test
+    void boundedDrop() {
+        // 느린 포크에서만 요소가 버려지고, 받은 요소와 버린 요소의 합은 전체 요소 수와 같다.
+        StreamForker.Results results = new StreamForker<>(LongStream.rangeClosed(1, SIZE).boxed())
+                .bounded(8, OverflowPolicy.DROP)
+                .fork("slow", s -> s.peek(StreamForkerTest::sleepOccasionally).count())
+                .getResults();
+
+        long consumed = results.get("slow");
+        Assertions.assertThat(consumed + results.droppedCount("slow")).isEqualTo((long) SIZE);
+        Assertions.assertThat(results.droppedCount("slow")).isPositive();
+    }
+
+    @Test
+    void boundedFail() {
+        Assertions.assertThatThrownBy(() -> new StreamForker<>(LongStream.rangeClosed(1, SIZE).boxed())
+                        .bounded(8, OverflowPolicy.FAIL)
+                        .fork("slow", s -> s.peek(StreamForkerTest::sleepOccasionally).count())
+                        .getResults())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("slow");
+    }
+
+    @Test
+    void chunked() {
+        // 청크 크기로 나누어 떨어지지 않는 요소 수도 순서대로 모두 전달된다.
+        StreamForker.Results results = new StreamForker<>(LongStream.rangeClosed(1, SIZE).boxed())
+                .transport(Transport.CHUNKED)
+                .chunkSize(7)
+                .bounded(64)
+                .fork("sum", s -> s.mapToLong(Long::longValue).sum())
+                .fork("list", s -> s.collect(toList()))
+                .fork("iterator", s -> {
+                    // forEachRemaining 대신 tryAdvance로 탐색하는 경우
+                    long count = 0;
+                    for (var it = s.iterator(); it.hasNext(); it.next()) {
+                        count++;
+                    }
+                    return count;
+                })
+                .getResults();
+
+        Assertions.assertThat(results.<Long>get("sum")).isEqualTo(5000050000L);
+        Assertions.assertThat(results.<List<Long>>get("list"))
+                .isEqualTo(LongStream.rangeClosed(1, SIZE).boxed().toList());
+        Assertions.assertThat(results.<Long>get("iterator")).isEqualTo((long) SIZE);
+        Assertions.assertThat(results.queueDepth("sum")).isZero();
+    }
+
+    @Test
+    void chunkedDrop() {
+        // DROP 정책은 청크 단위로 버린다.
+        StreamForker.Results results = new StreamForker<>(LongStream.rangeClosed(1, SIZE).boxed())
+                .transport(Transport.CHUNKED)
+                .chunkSize(10)
+                .bounded(20, OverflowPolicy.DROP)
+                .fork("slow", s -> s.peek(StreamForkerTest::sleepOccasionally).count())
+                .getResults();
+
+        long consumed = results.get("slow");
+        Assertions.assertThat(consumed + results.droppedCount("slow")).isEqualTo((long) SIZE);
+        Assertions.assertThat(results.droppedCount("slow") % 10).isZero();
+    }
+
+    @Test
+    void chunkedBoundedDepth() throws InterruptedException {
+        // 기본 청크 크기(256)가 용량보다 커도 큐에는 용량 이상 쌓이지 않는다.
+        StreamForker.Results results = new StreamForker<>(LongStream.rangeClosed(1, SIZE).boxed())
+                .transport(Transport.CHUNKED)
+                .bounded(10)
+                .fork("slow", s -> s.peek(StreamForkerTest::sleepOccasionally).mapToLong(Long::longValue).sum())
+                .getResultsAsync();
+
+        while (!results.stats("slow").isFinished()) {
+            Assertions.assertThat(results.queueDepth("slow")).isLessThanOrEqualTo(10);
+            Thread.sleep(1);
+        }
+        Assertions.assertThat(results.<Long>get("slow")).isEqualTo(5000050000L);
+        Assertions.assertThat(results.stats("slow").peakQueueDepth()).isBetween(1, 10);
+    }
+
+    @Test
+    void spscRing() {
+        // 링 크기(8)보다 훨씬 많은 요소도 순서대로 모두 전달된다.
+        StreamForker.Results results = new StreamForker<>(LongStream.rangeClosed(1, SIZE).boxed())
+                .transport(Transport.SPSC_RING)
+                .bounded(8)
+                .fork("sum", s -> s.mapToLong(Long::longValue).sum())
+                .fork("list", s -> s.collect(toList()))
+                .getResults();
+
+        Assertions.assertThat(results.<Long>get("sum")).isEqualTo(5000050000L);
+        Assertions.assertThat(results.<List<Long>>get("list"))
+                .isEqualTo(LongStream.rangeClosed(1, SIZE).boxed().toList());
+        Assertions.assertThat(results.queueDepth("sum")).isZero();
+    }
+
+    @Test
+    void spscRingDrop() {
+        StreamForker.Results results = new StreamForker<>(LongStream.rangeClosed(1, SIZE).boxed())
+                .transport(Transport.SPSC_RING)
+                .bounded(16, OverflowPolicy.DROP)
+                .fork("slow", s -> s.peek(StreamForkerTest::sleepOccasionally).count())
+                .getResults();
+
+        long consumed = results.get("slow");
+        Assertions.assertThat(consumed + results.droppedCount("slow")).isEqualTo((long) SIZE);
+    }
+
+    @Test
+    void executor() {
+        ExecutorService executor = Executors.newFixedThreadPool(2, r -> new Thread(r, "forker"));
+        try {
+            StreamForker.Results results = new StreamForker<>(LongStream.rangeClosed(1, SIZE).boxed())
+                    .executor(executor)
+                    .fork("sum", s -> s.mapToLong(Long::longValue).sum())
+                    .fork("thread", s -> {
+                        s.forEach(ignored -> {
+                        });
+                        return Thread.currentThread().getName();
+                    })
+                    .getResults();
+
+            Assertions.assertThat(results.<Long>get("sum")).isEqualTo(5000050000L);
+            Assertions.assertThat(results.<String>get("thread")).isEqualTo("forker");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void virtualThreads() {
+        // 공용 ForkJoinPool의 병렬도보다 훨씬 많은 포크가 작은 버퍼로 블로킹해도 멈추지 않는다.
+        StreamForker<Long> forker = new StreamForker<>(LongStream.rangeClosed(1, SIZE).boxed())
+                .virtualThreads()
+                .bounded(16);
+        for (int i = 0; i < 100; i++) {
+            forker.fork(i, s -> s.mapToLong(Long::longValue).sum());
+        }
+        forker.fork("virtual", s -> {
+            s.forEach(ignored -> {
+            });
+            return Thread.currentThread().isVirtual();
+        });
+        StreamForker.Results results = forker.getResults();
+
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertThat(results.<Long>get(i)).isEqualTo(5000050000L);
+        }
+        Assertions.assertThat(results.<Boolean>get("virtual")).isTrue();
+    }
+
+    @Test
+    void parallel() {
+        StreamForker.Results results = new StreamForker<>(LongStream.rangeClosed(1, SIZE).boxed())
+                .parallel()
+                .transport(Transport.CHUNKED)
+                .bounded(1_024)
+                .forkCombinable("sum", summingLong(Long::longValue))
+                .forkCombinable("list", toList())
+                .forkCombinable("byMod", groupingByConcurrent(n -> n % 3, counting()))
+                .forkUnordered("max", s -> s.max(Long::compare).get())
+                .forkUnordered("count", s -> s.count())
+                .getResults();
+
+        Assertions.assertThat(results.<Long>get("sum")).isEqualTo(5000050000L);
+        // 합칠 수 있는 포크는 조각을 원본 스트림의 순서대로 합친다.
+        Assertions.assertThat(results.<List<Long>>get("list"))
+                .isEqualTo(LongStream.rangeClosed(1, SIZE).boxed().toList());
+        Assertions.assertThat(results.<Map<Long, Long>>get("byMod"))
+                .isEqualTo(Map.of(0L, 33_333L, 1L, 33_334L, 2L, 33_333L));
+        Assertions.assertThat(results.<Long>get("max")).isEqualTo((long) SIZE);
+        Assertions.assertThat(results.<Long>get("count")).isEqualTo((long) SIZE);
+        Assertions.assertThat(results.queueDepth("sum")).isZero();
+    }
+
+    @Test
+    void parallelRejectsOrderedFork() {
+        Assertions.assertThatThrownBy(() -> new StreamForker<>(Stream.of(1, 2, 3))
+                        .parallel()
+                        .fork("list", s -> s.collect(toList()))
+                        .getResults())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("list");
+
+        Assertions.assertThatThrownBy(() -> new StreamForker<>(Stream.of(1, 2, 3))
+                        .parallel()
+                        .transport(Transport.SPSC_RING)
+                        .forkUnordered("count", s -> s.count())
+                        .getResults())
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void combinableSequential() {
+        // 순차 모드에서도 합칠 수 있는 포크는 생산자 스레드에서 바로 누적한다.
+        StreamForker.Results results = new StreamForker<>(Stream.of(1, 2, 3))
+                .forkCombinable("joined", mapping(String::valueOf, joining(",")))
+                .fork("count", s -> s.count())
+                .getResults();
+
+        Assertions.assertThat(results.<String>get("joined")).isEqualTo("1,2,3");
+        Assertions.assertThat(results.<Long>get("count")).isEqualTo(3L);
+    }
+
+    @Test
+    void shortCircuitForks() {
+        // 스트림을 끝까지 읽지 않는 포크가 있어도 작은 버퍼에 막혀 멈추지 않는다.
+        for (Transport transport : Transport.values()) {
+            StreamForker.Results results = new StreamForker<>(LongStream.rangeClosed(1, SIZE).boxed())
+                    .transport(transport)
+                    .chunkSize(4)
+                    .bounded(8)
+                    .fork("first", s -> s.findFirst().get())
+                    .fork("anyMatch", s -> s.anyMatch(n -> n == 100))
+                    .fork("limit", s -> s.limit(10).count())
+                    .fork("sum", s -> s.mapToLong(Long::longValue).sum())
+                    .getResults();
+
+            Assertions.assertThat(results.<Long>get("first")).isEqualTo(1L);
+            Assertions.assertThat(results.<Boolean>get("anyMatch")).isTrue();
+            Assertions.assertThat(results.<Long>get("limit")).isEqualTo(10L);
+            Assertions.assertThat(results.<Long>get("sum")).isEqualTo(5000050000L);
+        }
+    }
+
+    @Test
+    void sourceStopsWhenAllForksFinish() {
+        // 모든 포크가 끝나면 무한 스트림이라도 원본 스트림 탐색을 멈춘다.
+        AtomicLong pulled = new AtomicLong();
+        StreamForker.Results results = new StreamForker<>(Stream.iterate(1L, n -> n + 1).peek(n -> pulled.incrementAndGet()))
+                .bounded(16)
+                .fork("first", s -> s.findFirst().get())
+                .fork("limit", s -> s.limit(100).collect(toList()))
+                .getResults();
+
+        Assertions.assertThat(results.<Long>get("first")).isEqualTo(1L);
+        Assertions.assertThat(results.<List<Long>>get("limit")).hasSize(100);
+        Assertions.assertThat(pulled.get()).isLessThan(1_000L);
+    }
+
+    @Test
+    void cancel() throws Exception {
+        StreamForker.Results results = new StreamForker<>(Stream.iterate(1L, n -> n + 1))
+                .bounded(16)
+                .fork("count", s -> s.count())
+                .forkCombinable("sum", summingLong(Long::longValue))
+                .getResultsAsync();
+
+        Assertions.assertThatThrownBy(() -> results.get("count", 50, TimeUnit.MILLISECONDS))
+                .isInstanceOf(TimeoutException.class);
+
+        // 원본 스트림이 무한이어도 취소하면 생산자와 포크가 모두 멈춘다.
+        results.cancel();
+        Assertions.assertThatThrownBy(() -> results.get("count"))
+                .isInstanceOf(RuntimeException.class);
+        Assertions.assertThatThrownBy(() -> results.get("sum"))
+                .isInstanceOf(RuntimeException.class);
+        Assertions.assertThat(results.queueDepth("count")).isZero();
+    }
+
+    @Test
+    void cancelFork() {
+        // 취소한 포크만 결과를 얻을 수 없고 나머지 포크는 모든 요소를 받는다.
+        StreamForker.Results results = new StreamForker<>(LongStream.rangeClosed(1, SIZE).boxed())
+                .bounded(16)
+                .fork("slow", s -> s.peek(StreamForkerTest::sleepOccasionally).count())
+                .fork("sum", s -> s.mapToLong(Long::longValue).sum())
+                .getResultsAsync();
+
+        Assertions.assertThat(results.cancel("slow")).isTrue();
+        Assertions.assertThat(results.<Long>get("sum")).isEqualTo(5000050000L);
+        Assertions.assertThat(results.cancel("sum")).isFalse();
+        Assertions.assertThatThrownBy(() -> results.get("slow"))
+                .isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void stats() {
+        Map<Object, ForkStats> finished = new ConcurrentHashMap<>();
+        StreamForker.Results results = new StreamForker<>(LongStream.rangeClosed(1, SIZE).boxed())
+                .transport(Transport.CHUNKED)
+                .bounded(1_024)
+                .listener(stats -> finished.put(stats.key(), stats))
+                .fork("slow", s -> s.peek(StreamForkerTest::sleepOccasionally).count())
+                .fork("first", s -> s.findFirst().get())
+                .forkCombinable("sum", summingLong(Long::longValue))
+                .getResults();
+        results.get("slow");
+        results.get("first");
+
+        ForkStats slow = results.stats("slow");
+        Assertions.assertThat(slow.isFinished()).isTrue();
+        Assertions.assertThat(slow.elementsConsumed()).isEqualTo((long) SIZE);
+        Assertions.assertThat(slow.computeTime().toMillis()).isGreaterThanOrEqualTo(100L);
+        // 느린 포크의 버퍼는 가득 찬다.
+        Assertions.assertThat(slow.peakQueueDepth()).isEqualTo(1_024);
+        Assertions.assertThat(results.stats("first").elementsConsumed()).isEqualTo(1L);
+        Assertions.assertThat(results.stats("sum").elementsConsumed()).isEqualTo((long) SIZE);
+        Assertions.assertThat(finished).containsOnlyKeys("slow", "first", "sum");
+        Assertions.assertThat(finished.get("slow").elementsConsumed()).isEqualTo((long) SIZE);
+    }
+
+    @Test
+    void unknownKey() {
+        StreamForker.Results results = new StreamForker<>(LongStream.rangeClosed(1, 10).boxed())
+                .fork("count", s -> s.count())
+                .getResults();
+
+        Assertions.assertThatThrownBy(() -> results.queueDepth("none"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void sleepOccasionally(long value) {
+        if (value % 1_000 == 0) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
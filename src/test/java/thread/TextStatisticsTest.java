@@ -0,0 +1,77 @@
+package thread;
+
+import modernJava.TextStatistics;
+import modernJava.TextTokenizer;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class TextStatisticsTest {
+
+    @Test
+    void tokenBoundaries() {
+        String text = "Lorem Ipsum, is  simply-dummy text!";
+        List<String> tokens = new ArrayList<>();
+        TextTokenizer.forEachToken(text, 0, text.length(), (start, end) -> tokens.add(text.substring(start, end)));
+
+        Assertions.assertThat(tokens).containsExactly("Lorem", "Ipsum", "is", "simply", "dummy", "text");
+    }
+
+    @Test
+    void statistics() {
+        String text = "the quick brown fox\n\nThe lazy dog and the fox\njumps";
+        TextStatistics stats = TextStatistics.of(text, true);
+
+        Assertions.assertThat(stats.tokens()).isEqualTo(11L);
+        Assertions.assertThat(stats.distinctTokens()).isEqualTo(8);
+        Assertions.assertThat(stats.estimatedDistinctTokens()).isEqualTo(8L);
+        Assertions.assertThat(stats.lines()).isEqualTo(4L);
+        Assertions.assertThat(stats.emptyLines()).isEqualTo(1L);
+        Assertions.assertThat(stats.maxTokensPerLine()).isEqualTo(6);
+        Assertions.assertThat(stats.topK(2)).containsExactly(
+                new TextStatistics.WordFrequency("the", 3), new TextStatistics.WordFrequency("fox", 2));
+    }
+
+    @Test
+    void parallelMatchesSequential() {
+        // 여러 스레드가 나눠 센 빈도 테이블을 합친 결과가 HashMap으로 센 결과와 같다.
+        String text = randomText(2_000_000);
+        Map<String, Long> expected = new HashMap<>();
+        for (String line : text.split("\n")) {
+            TextTokenizer.forEachToken(line, 0, line.length(), (start, end) -> expected.merge(line.substring(start, end), 1L, Long::sum));
+        }
+        TextStatistics stats = TextStatistics.of(text);
+
+        Assertions.assertThat(stats.tokens()).isEqualTo(expected.values().stream().mapToLong(Long::longValue).sum());
+        Assertions.assertThat(stats.distinctTokens()).isEqualTo(expected.size());
+        // 마지막 줄바꿈 뒤의 빈 줄은 세지 않는다.
+        long lines = text.chars().filter(c -> c == '\n').count() + (text.endsWith("\n") ? 0 : 1);
+        Assertions.assertThat(stats.lines()).isEqualTo(lines);
+        long estimate = stats.estimatedDistinctTokens();
+        Assertions.assertThat(Math.abs(estimate - expected.size())).isLessThan(expected.size() / 20L);
+        for (TextStatistics.WordFrequency frequency : stats.topK(10)) {
+            Assertions.assertThat(frequency.count()).isEqualTo(expected.get(frequency.word()));
+        }
+        long maxCount = expected.values().stream().mapToLong(Long::longValue).max().getAsLong();
+        Assertions.assertThat(stats.topK(1).get(0).count()).isEqualTo(maxCount);
+    }
+
+    private static String randomText(int words) {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            // 짧은 단어는 자주, 긴 단어는 드물게 나오도록 길이를 고른다.
+            int length = 1 + (int) Math.abs(random.nextGaussian() * 3);
+            for (int j = 0; j < length; j++) {
+                sb.append((char) ('a' + random.nextInt(length <= 2 ? 3 : 26)));
+            }
+            sb.append(random.nextInt(12) == 0 ? '\n' : ' ');
+        }
+        return sb.toString();
+    }
+}
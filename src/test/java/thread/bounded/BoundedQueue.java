@@ -1,6 +1,40 @@
 package thread.bounded;
 
-public interface BoundedQueue {
-    boolean put(String data);
-    String take();
+import java.util.concurrent.TimeUnit;
+
+public interface BoundedQueue<T> {
+    boolean put(T data);
+    T take();
+
+    /**
+     * 큐가 가득 차 있으면 기다리지 않고 false를 반환한다.
+     */
+    boolean offer(T data);
+
+    /**
+     * 큐에 공간이 생길 때까지 최대 timeout만큼 기다리고, 그래도 넣지 못하면 false를 반환한다.
+     */
+    boolean offer(T data, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * 큐가 비어 있으면 기다리지 않고 null을 반환한다.
+     */
+    T poll();
+
+    /**
+     * 데이터가 들어올 때까지 최대 timeout만큼 기다리고, 그래도 없으면 null을 반환한다.
+     */
+    T poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * data[offset, offset + length)를 앞에서부터 들어가는 만큼 넣고 넣은 개수를 반환한다.
+     * 대기하는 구현은 하나도 넣을 수 없으면 하나라도 들어갈 때까지 기다리고, 대기하지 않는 구현은 0을 반환한다.
+     */
+    int putAll(T[] data, int offset, int length);
+
+    /**
+     * 최대 length개를 꺼내서 buffer[offset]부터 채우고 꺼낸 개수를 반환한다.
+     * 대기하는 구현은 큐가 비어 있으면 하나라도 들어올 때까지 기다리고, 대기하지 않는 구현은 0을 반환한다.
+     */
+    int drainTo(T[] buffer, int offset, int length);
 }
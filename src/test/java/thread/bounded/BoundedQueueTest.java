@@ -1,9 +1,13 @@
 package thread.bounded;
 
+import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import static thread.MyLogger.*;
 
@@ -11,40 +15,310 @@ public class BoundedQueueTest {
 
     @Test
     void boundedQueueV1() throws InterruptedException {
-//        BoundedQueue queue = new BoundedQueueV1(2);
-//        BoundedQueue queue = new BoundedQueueV5(2);
-        BoundedQueue queue = new BoundedQueueV6_1(2);
+//        BoundedQueue<String> queue = new BoundedQueueV1<>(2);
+//        BoundedQueue<String> queue = new BoundedQueueV5<>(2);
+        BoundedQueue<String> queue = new BoundedQueueV6_1<>(2);
 
-//        producerFirst(queue);
-        consumerFirst(queue);
+//        producerFirst(queue, ThreadRuntime.PLATFORM);
+        consumerFirst(queue, ThreadRuntime.PLATFORM);
 
     }
 
-    private static void producerFirst(BoundedQueue queue) throws InterruptedException {
+    @Test
+    void virtualThreadConsumerFirst() throws InterruptedException {
+        consumerFirst(new BoundedQueueV5<>(2), ThreadRuntime.VIRTUAL);
+    }
+
+    /**
+     * 가득 찬 큐에 넣으려는 가상 스레드 10만 개가 동시에 기다린다. 큐가 synchronized 안에서 기다리면 캐리어 스레드가 모두 붙잡혀 진행하지 못한다.
+     * V7은 깨워 주는 스레드 없이 주기적으로 깨어나 다시 시도하므로 기다리는 스레드가 이만큼 많으면 느려서 제외한다.
+     */
+    @Test
+    void virtualThreadProducers() throws InterruptedException {
+        int producers = 100_000;
+        for (BoundedQueue<Integer> queue : List.<BoundedQueue<Integer>>of(new BoundedQueueV1<>(16), new BoundedQueueV5<>(16),
+                new BoundedQueueV6_1<>(16))) {
+            List<Thread> threads = new ArrayList<>(producers);
+            for (int i = 0; i < producers; i++) {
+                int data = i;
+                // put은 V1이 버리고 V5가 로그를 남기므로 시간 제한 offer로 기다린다.
+                threads.add(ThreadRuntime.VIRTUAL.start(() -> {
+                    try {
+                        Assertions.assertThat(queue.offer(data, 1, TimeUnit.MINUTES)).isTrue();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }, "producer" + i));
+            }
+            long sum = 0;
+            for (int i = 0; i < producers; i++) {
+                Integer data = queue.poll(1, TimeUnit.MINUTES);
+                Assertions.assertThat(data).as(queue.getClass().getSimpleName()).isNotNull();
+                sum += data;
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            Assertions.assertThat(sum).isEqualTo((long) producers * (producers - 1) / 2);
+        }
+    }
+
+    @Test
+    void boundedQueueV7() throws InterruptedException {
+        // 용량이 2의 거듭제곱이 아닌 경우도 확인한다.
+        for (int capacity : new int[]{3, 64}) {
+            BoundedQueueV7<String> queue = new BoundedQueueV7<>(capacity);
+            int producers = 4;
+            int perProducer = 50_000;
+            Set<String> received = ConcurrentHashMap.newKeySet();
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int id = p;
+                threads.add(new Thread(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        queue.put(id + "-" + i);
+                    }
+                }));
+                threads.add(new Thread(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        received.add(queue.take());
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            // 중복이나 유실이 있으면 크기가 달라진다.
+            Assertions.assertThat(received).hasSize(producers * perProducer);
+            Assertions.assertThat(queue.poll()).isNull();
+        }
+
+        BoundedQueueV7<String> queue = new BoundedQueueV7<>(2);
+        Assertions.assertThat(queue.offer("data1")).isTrue();
+        Assertions.assertThat(queue.offer("data2")).isTrue();
+        Assertions.assertThat(queue.offer("data3")).isFalse();
+        Assertions.assertThat(queue.toString()).isEqualTo("[data1, data2]");
+        Assertions.assertThat(queue.take()).isEqualTo("data1");
+    }
+
+    @Test
+    void batch() throws InterruptedException {
+        for (BoundedQueue<String> queue : List.<BoundedQueue<String>>of(new BoundedQueueV5<>(5), new BoundedQueueV6_1<>(5), new BoundedQueueV7<>(5))) {
+            transferInBatches(queue, 2, 2_000, 8);
+        }
+
+        BoundedQueue<String> queue = new BoundedQueueV1<>(3);
+        Assertions.assertThat(queue.putAll(new String[]{"a", "b", "c", "d"}, 0, 4)).isEqualTo(3);
+        String[] buffer = new String[4];
+        Assertions.assertThat(queue.drainTo(buffer, 1, 2)).isEqualTo(2);
+        Assertions.assertThat(buffer).containsExactly(null, "a", "b", null);
+        Assertions.assertThat(queue.drainTo(buffer, 0, 4)).isEqualTo(1);
+        Assertions.assertThat(queue.drainTo(buffer, 0, 4)).isZero();
+    }
+
+    @Test
+    void timedOperations() throws InterruptedException {
+        for (BoundedQueue<String> queue : List.<BoundedQueue<String>>of(new BoundedQueueV1<>(1), new BoundedQueueV2<>(1), new BoundedQueueV5<>(1),
+                new BoundedQueueV6_1<>(1), new BoundedQueueV7<>(1))) {
+            String name = queue.getClass().getSimpleName();
+            Assertions.assertThat(queue.poll()).as(name).isNull();
+            Assertions.assertThat(queue.poll(10, TimeUnit.MILLISECONDS)).as(name).isNull();
+            Assertions.assertThat(queue.offer("data1")).as(name).isTrue();
+            Assertions.assertThat(queue.offer("data2")).as(name).isFalse();
+
+            long start = System.nanoTime();
+            Assertions.assertThat(queue.offer("data2", 50, TimeUnit.MILLISECONDS)).as(name).isFalse();
+            Assertions.assertThat(System.nanoTime() - start).as(name).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+
+            // 기다리는 동안 소비자가 꺼내면 넣는다.
+            Thread consumer = new Thread(() -> {
+                try {
+                    Thread.sleep(20);
+                    queue.poll(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            consumer.start();
+            Assertions.assertThat(queue.offer("data2", 5, TimeUnit.SECONDS)).as(name).isTrue();
+            consumer.join();
+            Assertions.assertThat(queue.poll(1, TimeUnit.SECONDS)).as(name).isEqualTo("data2");
+        }
+    }
+
+    @Test
+    void overflowPolicies() {
+        OverflowBoundedQueue<String> dropNewest = OverflowBoundedQueue.dropNewest(new BoundedQueueV5<>(2));
+        Assertions.assertThat(dropNewest.putAll(new String[]{"a", "b", "c"}, 0, 3)).isEqualTo(3);
+        Assertions.assertThat(dropNewest.droppedCount()).isEqualTo(1L);
+        Assertions.assertThat(dropNewest.take()).isEqualTo("a");
+
+        OverflowBoundedQueue<String> dropOldest = OverflowBoundedQueue.dropOldest(new BoundedQueueV7<>(2));
+        for (String data : new String[]{"a", "b", "c", "d"}) {
+            Assertions.assertThat(dropOldest.put(data)).isTrue();
+        }
+        Assertions.assertThat(dropOldest.droppedCount()).isEqualTo(2L);
+        Assertions.assertThat(dropOldest.poll()).isEqualTo("c");
+        Assertions.assertThat(dropOldest.poll()).isEqualTo("d");
+
+        List<String> handled = new ArrayList<>();
+        OverflowBoundedQueue<String> callerRuns = OverflowBoundedQueue.callerRuns(new BoundedQueueV6_1<>(1), handled::add);
+        Assertions.assertThat(callerRuns.put("a")).isTrue();
+        Assertions.assertThat(callerRuns.put("b")).isTrue();
+        Assertions.assertThat(handled).containsExactly("b");
+
+        OverflowBoundedQueue<String> block = OverflowBoundedQueue.block(new BoundedQueueV5<>(1), 20, TimeUnit.MILLISECONDS);
+        Assertions.assertThat(block.put("a")).isTrue();
+        Assertions.assertThat(block.put("b")).isFalse();
+        Assertions.assertThat(block.droppedCount()).isEqualTo(1L);
+        Assertions.assertThat(block.policy()).isEqualTo(OverflowPolicy.BLOCK);
+    }
+
+    @Test
+    void longBoundedQueue() throws InterruptedException {
+        LongBoundedQueue queue = new LongBoundedQueue(100);
+        int producers = 4;
+        int perProducer = 250_000;
+        long[] sums = new long[producers];
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int id = p;
+            threads.add(new Thread(() -> {
+                long[] batch = new long[16];
+                for (long i = 0; i < perProducer; i += batch.length) {
+                    for (int j = 0; j < batch.length; j++) {
+                        batch[j] = i + j;
+                    }
+                    for (int offset = 0; offset < batch.length; ) {
+                        offset += queue.putAll(batch, offset, batch.length - offset);
+                    }
+                }
+            }));
+            threads.add(new Thread(() -> {
+                long sum = 0;
+                for (int i = 0; i < perProducer; i++) {
+                    sum += queue.takeLong();
+                }
+                sums[id] = sum;
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long expected = (long) producers * perProducer * (perProducer - 1) / 2;
+        Assertions.assertThat(sums[0] + sums[1] + sums[2] + sums[3]).isEqualTo(expected);
+        Assertions.assertThat(queue.pollAll(new long[1], 0, 1)).isZero();
+
+        // 기존 ProducerTask, ConsumerTask로도 사용할 수 있다.
+        LongBoundedQueue ids = new LongBoundedQueue(2);
+        Thread producer = new Thread(new ProducerTask<>(ids, 42L));
+        producer.start();
+        producer.join();
+        Thread consumer = new Thread(new ConsumerTask<>(ids));
+        consumer.start();
+        consumer.join();
+        Assertions.assertThat(ids.poll()).isNull();
+        Assertions.assertThat(ids.offerLong(7)).isTrue();
+        Assertions.assertThat(ids.toString()).isEqualTo("[7]");
+    }
+
+    @Test
+    void queueBenchmark() throws InterruptedException {
+        System.out.println(QueueBenchmark.Result.header());
+        for (QueueBenchmark benchmark : QueueBenchmark.all()) {
+            for (ThreadRuntime runtime : ThreadRuntime.values()) {
+                QueueBenchmark.Result result = benchmark.runtime(runtime).producers(2).consumers(3).capacity(64)
+                        .operations(20_000).warmupOperations(0).run();
+                System.out.println(result);
+                Assertions.assertThat(result.operations()).isEqualTo(20_000L);
+                Assertions.assertThat(result.opsPerSecond()).isPositive();
+                Assertions.assertThat(result.p50()).isLessThanOrEqualTo(result.p99());
+                Assertions.assertThat(result.p99()).isLessThanOrEqualTo(result.max());
+            }
+        }
+    }
+
+    @Test
+    void latencyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100_000; i++) {
+            histogram.record(i);
+        }
+        Assertions.assertThat(histogram.totalCount()).isEqualTo(100_000L);
+        Assertions.assertThat(histogram.max()).isEqualTo(100_000L);
+        // 구간의 상대 오차는 1/64 이내이다.
+        Assertions.assertThat(histogram.percentile(50)).isBetween(50_000L, 50_000L + 50_000L / 64);
+        Assertions.assertThat(histogram.percentile(99)).isBetween(99_000L, 99_000L + 99_000L / 64);
+        Assertions.assertThat(histogram.percentile(100)).isEqualTo(100_000L);
+        Assertions.assertThat(histogram.percentile(0)).isEqualTo(1L);
+    }
+
+    /**
+     * 생산자와 소비자가 batchSize씩 주고받는다. putAll이 일부만 넣으면 나머지를 다시 넣는다.
+     */
+    private static void transferInBatches(BoundedQueue<String> queue, int pairs, int perProducer, int batchSize)
+            throws InterruptedException {
+        Set<String> received = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < pairs; p++) {
+            int id = p;
+            threads.add(new Thread(() -> {
+                String[] batch = new String[batchSize];
+                for (int i = 0; i < perProducer; i += batchSize) {
+                    int length = Math.min(batchSize, perProducer - i);
+                    for (int j = 0; j < length; j++) {
+                        batch[j] = id + "-" + (i + j);
+                    }
+                    for (int offset = 0; offset < length; ) {
+                        offset += queue.putAll(batch, offset, length - offset);
+                    }
+                }
+            }));
+            threads.add(new Thread(() -> {
+                String[] batch = new String[batchSize];
+                for (int taken = 0; taken < perProducer; ) {
+                    int count = queue.drainTo(batch, 0, Math.min(batchSize, perProducer - taken));
+                    for (int j = 0; j < count; j++) {
+                        received.add(batch[j]);
+                    }
+                    taken += count;
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertThat(received).as(queue.getClass().getSimpleName()).hasSize(pairs * perProducer);
+    }
+
+    private static void producerFirst(BoundedQueue<String> queue, ThreadRuntime runtime) throws InterruptedException {
         log("== [생산자 먼저 실행] 시작, " + queue.getClass().getSimpleName() + " ==");
         List<Thread> threads = new ArrayList<>();
 
-        startProducer(queue, threads);
+        startProducer(queue, threads, runtime);
         printAllState(queue, threads);
-        startConsumer(queue, threads);
+        startConsumer(queue, threads, runtime);
         printAllState(queue, threads);
 
         log("== [생산자 먼저 실행] 종료, " + queue.getClass().getSimpleName() + " ==");
     }
 
-    private static void consumerFirst(BoundedQueue queue) throws InterruptedException {
+    private static void consumerFirst(BoundedQueue<String> queue, ThreadRuntime runtime) throws InterruptedException {
         log("== [소비자 먼저 실행] 시작, " + queue.getClass().getSimpleName() + " ==");
         List<Thread> threads = new ArrayList<>();
 
-        startConsumer(queue, threads);
+        startConsumer(queue, threads, runtime);
         printAllState(queue, threads);
-        startProducer(queue, threads);
+        startProducer(queue, threads, runtime);
         printAllState(queue, threads);
 
         log("== [소비자 먼저 실행] 종료, " + queue.getClass().getSimpleName() + " ==");
     }
 
-    private static void printAllState(BoundedQueue queue, List<Thread> threads) {
+    private static void printAllState(BoundedQueue<String> queue, List<Thread> threads) {
         System.out.println();
         log("현재 상태 출력, 큐 데이터: " + queue);
         for (Thread t : threads) {
@@ -52,25 +326,23 @@ public class BoundedQueueTest {
         }
     }
 
-    private static void startProducer(BoundedQueue queue, List<Thread> threads) throws InterruptedException {
+    private static void startProducer(BoundedQueue<String> queue, List<Thread> threads, ThreadRuntime runtime) throws InterruptedException {
         System.out.println();
         log("생산자 시작");
         for (int i = 0 ; i < 3 ; i++) {
-            Thread producer = new Thread(new ProducerTask(queue, "data" + i), "producer" + i);
+            Thread producer = runtime.start(new ProducerTask<>(queue, "data" + i), "producer" + i);
             threads.add(producer);
-            producer.start();
 
             Thread.sleep(100);
         }
     }
 
-    private static void startConsumer(BoundedQueue queue, List<Thread> threads) throws InterruptedException {
+    private static void startConsumer(BoundedQueue<String> queue, List<Thread> threads, ThreadRuntime runtime) throws InterruptedException {
         System.out.println();
         log("소비자 시작");
         for (int i = 0 ; i < 3 ; i++) {
-            Thread consumer = new Thread(new ConsumerTask(queue), "consumer" + i);
+            Thread consumer = runtime.start(new ConsumerTask<>(queue), "consumer" + i);
             threads.add(consumer);
-            consumer.start();
 
             Thread.sleep(100);
         }
@@ -4,36 +4,167 @@ import thread.MyLogger;
 
 import java.util.ArrayDeque;
 import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 생산자가 데이터를 생산할 때 버퍼가 꽉 차있으면 데이터를 버리고, 소비자가 데이터를 꺼내려할 때 데이터가 없으면 null을 반환한다.
  * 데이터 유실 가능성이 높다.
  */
-public class BoundedQueueV1 implements BoundedQueue {
+public class BoundedQueueV1<T> implements BoundedQueue<T> {
 
-    private final Queue<String> queue = new ArrayDeque<>();
+    private final Queue<T> queue = new ArrayDeque<>();
     private final int max;
+    // synchronized 안에서 wait하면 가상 스레드가 캐리어 스레드를 붙잡으므로(pinning) ReentrantLock과 Condition을 사용한다.
+    private final Lock lock = new ReentrantLock();
+    // 시간 제한 offer, poll에서 기다리는 생산자와 소비자
+    private final Condition notFull = lock.newCondition();
+    private final Condition notEmpty = lock.newCondition();
 
     public BoundedQueueV1(int max) {
         this.max = max;
     }
 
     @Override
-    public synchronized boolean put(String data) {
-        if (queue.size() == max) {
-            MyLogger.log("[생산 실패] 큐가 가득 참, 버림: " + data);
-            return false;
+    public boolean put(T data) {
+        lock.lock();
+        try {
+            if (queue.size() == max) {
+                MyLogger.log("[생산 실패] 큐가 가득 참, 버림: " + data);
+                return false;
+            }
+            queue.offer(data);
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
         }
-        queue.offer(data);
-        return true;
     }
 
     @Override
-    public synchronized String take() {
-        if (queue.isEmpty()) {
-            return null;
+    public T take() {
+        lock.lock();
+        try {
+            if (queue.isEmpty()) {
+                return null;
+            }
+            notFull.signal();
+            return queue.poll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int putAll(T[] data, int offset, int length) {
+        lock.lock();
+        try {
+            int count = Math.min(length, max - queue.size());
+            for (int i = 0; i < count; i++) {
+                queue.offer(data[offset + i]);
+            }
+            if (count < length) {
+                MyLogger.log("[생산 실패] 큐가 가득 참, " + (length - count) + "개 넣지 못함");
+            }
+            signal(notEmpty, count);
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(T[] buffer, int offset, int length) {
+        lock.lock();
+        try {
+            int count = Math.min(length, queue.size());
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = queue.poll();
+            }
+            signal(notFull, count);
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(T data) {
+        lock.lock();
+        try {
+            if (queue.size() == max) {
+                return false;
+            }
+            queue.offer(data);
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(T data, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (queue.size() == max) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            queue.offer(data);
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T poll() {
+        lock.lock();
+        try {
+            T data = queue.poll();
+            if (data != null) {
+                notFull.signal();
+            }
+            return data;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (queue.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            notFull.signal();
+            return queue.poll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * count개가 바뀌었으면 최대 count개의 스레드가 진행할 수 있다. 여러 개면 한 번에 모두 깨운다.
+     */
+    private static void signal(Condition condition, int count) {
+        if (count == 1) {
+            condition.signal();
+        } else if (count > 1) {
+            condition.signalAll();
         }
-        return queue.poll();
     }
 
     @Override
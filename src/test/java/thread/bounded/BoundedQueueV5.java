@@ -2,20 +2,21 @@ package thread.bounded;
 
 import java.util.ArrayDeque;
 import java.util.Queue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static thread.MyLogger.log;
 
-public class BoundedQueueV5 implements BoundedQueue {
+public class BoundedQueueV5<T> implements BoundedQueue<T> {
 
     private final Lock lock = new ReentrantLock();
     // 스레드 대기 집합소
     private final Condition producerCondition = lock.newCondition();
     private final Condition consumerCondition = lock.newCondition();
 
-    private final Queue<String> queue = new ArrayDeque<>();
+    private final Queue<T> queue = new ArrayDeque<>();
     private final int max;
 
     public BoundedQueueV5(int max) {
@@ -23,7 +24,7 @@ public class BoundedQueueV5 implements BoundedQueue {
     }
 
     @Override
-    public boolean put(String data) {
+    public boolean put(T data) {
         lock.lock();
         try {
             while (queue.size() == max) {
@@ -45,7 +46,7 @@ public class BoundedQueueV5 implements BoundedQueue {
     }
 
     @Override
-    public String take() {
+    public T take() {
         lock.lock();
         try {
             while (queue.isEmpty()) {
@@ -57,7 +58,7 @@ public class BoundedQueueV5 implements BoundedQueue {
                     throw new RuntimeException(e);
                 }
             }
-            String data = queue.poll();
+            T data = queue.poll();
             log("[take] 소비자 데이터 획득, producerCondition.signal() 호출");
             producerCondition.signal();
             return data;
@@ -66,6 +67,143 @@ public class BoundedQueueV5 implements BoundedQueue {
         }
     }
 
+    /**
+     * 락을 한 번 잡고 들어가는 만큼 넣은 뒤 넣은 개수만큼 소비자를 깨운다.
+     */
+    @Override
+    public int putAll(T[] data, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        lock.lock();
+        try {
+            while (queue.size() == max) {
+                log("[putAll] 큐가 가득 참, 생산자 대기");
+                try {
+                    producerCondition.await();
+                    log("[putAll] 생산자 깨어남");
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            int count = Math.min(length, max - queue.size());
+            for (int i = 0; i < count; i++) {
+                queue.offer(data[offset + i]);
+            }
+            log("[putAll] 생산자 데이터 " + count + "개 저장, consumerCondition 호출");
+            signal(consumerCondition, count);
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(T[] buffer, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        lock.lock();
+        try {
+            while (queue.isEmpty()) {
+                log("[drainTo] 큐에 데이터가 없음, 소비자 대기");
+                try {
+                    consumerCondition.await();
+                    log("[drainTo] 소비자 깨어남");
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            int count = Math.min(length, queue.size());
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = queue.poll();
+            }
+            log("[drainTo] 소비자 데이터 " + count + "개 획득, producerCondition 호출");
+            signal(producerCondition, count);
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(T data) {
+        lock.lock();
+        try {
+            if (queue.size() == max) {
+                return false;
+            }
+            queue.offer(data);
+            consumerCondition.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(T data, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (queue.size() == max) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = producerCondition.awaitNanos(nanos);
+            }
+            queue.offer(data);
+            consumerCondition.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T poll() {
+        lock.lock();
+        try {
+            T data = queue.poll();
+            if (data != null) {
+                producerCondition.signal();
+            }
+            return data;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (queue.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = consumerCondition.awaitNanos(nanos);
+            }
+            T data = queue.poll();
+            producerCondition.signal();
+            return data;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * count개가 바뀌었으면 최대 count개의 스레드가 진행할 수 있다. 여러 개면 한 번에 모두 깨운다.
+     */
+    private static void signal(Condition condition, int count) {
+        if (count == 1) {
+            condition.signal();
+        } else {
+            condition.signalAll();
+        }
+    }
+
     @Override
     public String toString() {
         return queue.toString();
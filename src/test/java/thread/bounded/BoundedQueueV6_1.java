@@ -1,18 +1,21 @@
 package thread.bounded;
 
+import java.util.AbstractCollection;
 import java.util.ArrayDeque;
+import java.util.Iterator;
 import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static thread.MyLogger.log;
 
-public class BoundedQueueV6_1 implements BoundedQueue {
+public class BoundedQueueV6_1<T> implements BoundedQueue<T> {
 
-    private final BlockingQueue<String> queue;
+    private final BlockingQueue<T> queue;
     private final int max;
 
     public BoundedQueueV6_1(int max) {
@@ -21,7 +24,7 @@ public class BoundedQueueV6_1 implements BoundedQueue {
     }
 
     @Override
-    public boolean put(String data) {
+    public boolean put(T data) {
         try {
             queue.put(data);
         } catch (InterruptedException e) {
@@ -31,7 +34,7 @@ public class BoundedQueueV6_1 implements BoundedQueue {
     }
 
     @Override
-    public String take() {
+    public T take() {
         try {
             return queue.take();
         } catch (InterruptedException e) {
@@ -39,6 +42,89 @@ public class BoundedQueueV6_1 implements BoundedQueue {
         }
     }
 
+    /**
+     * ArrayBlockingQueue에는 여러 개를 한 번에 넣는 연산이 없으므로 첫 요소만 기다려서 넣고 나머지는 offer로 넣는다.
+     * 요소마다 락을 잡고 소비자를 깨우므로 한 번의 락으로 옮기는 V5와 달리 배치의 이점이 없다.
+     */
+    @Override
+    public int putAll(T[] data, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        put(data[offset]);
+        int count = 1;
+        while (count < length && queue.offer(data[offset + count])) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * ArrayBlockingQueue.drainTo는 락을 한 번만 잡고 꺼내므로 큐가 비어 있지 않으면 락 한 번으로 끝난다.
+     * 비어 있을 때만 첫 요소를 take로 기다린 뒤 나머지를 다시 꺼낸다.
+     */
+    @Override
+    public int drainTo(T[] buffer, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        int count = queue.drainTo(new ArraySink<>(buffer, offset), length);
+        if (count > 0) {
+            return count;
+        }
+        buffer[offset] = take();
+        return 1 + queue.drainTo(new ArraySink<>(buffer, offset + 1), length - 1);
+    }
+
+    /**
+     * drainTo가 꺼낸 요소를 중간 컬렉션 없이 호출자의 배열에 바로 쓴다. add 외의 연산은 사용하지 않는다.
+     */
+    private static final class ArraySink<T> extends AbstractCollection<T> {
+        private final T[] buffer;
+        private int index;
+
+        ArraySink(T[] buffer, int offset) {
+            this.buffer = buffer;
+            this.index = offset;
+        }
+
+        @Override
+        public boolean add(T t) {
+            buffer[index++] = t;
+            return true;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int size() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Override
+    public boolean offer(T data) {
+        return queue.offer(data);
+    }
+
+    @Override
+    public boolean offer(T data, long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.offer(data, timeout, unit);
+    }
+
+    @Override
+    public T poll() {
+        return queue.poll();
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
     @Override
     public String toString() {
         return queue.toString();
@@ -0,0 +1,128 @@
+package thread.bounded;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 락 없이 배열로 구현한 다중 생산자, 다중 소비자 큐, 위치 관리는 {@link SequencedRing}을 참고한다.
+ * 큐가 가득 차거나 비어 있으면 깨워 줄 스레드가 없으므로 잠깐 스핀하고, 양보하고, 점점 길게 잠드는 순서로 다시 시도한다.
+ * 모니터를 쓰지 않으므로 가상 스레드에서도 캐리어 스레드를 붙잡지 않지만, 기다리는 스레드가 수만 개라면 주기적으로 깨어나는 비용이 커지므로
+ * Condition으로 기다리는 BoundedQueueV5, V6_1이 낫다.
+ */
+public class BoundedQueueV7<T> extends SequencedRing implements BoundedQueue<T> {
+
+    private final Object[] buffer;
+
+    public BoundedQueueV7(int max) {
+        super(max);
+        this.buffer = new Object[max];
+    }
+
+    @Override
+    public boolean put(T data) {
+        for (int attempt = 0; !offer(data); attempt++) {
+            backoff(attempt);
+        }
+        return true;
+    }
+
+    @Override
+    public T take() {
+        T data;
+        for (int attempt = 0; (data = poll()) == null; attempt++) {
+            backoff(attempt);
+        }
+        return data;
+    }
+
+    @Override
+    public boolean offer(T data) {
+        long pos = claimEnqueue();
+        if (pos < 0) {
+            return false;
+        }
+        buffer[index(pos)] = data;
+        publish(pos);
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long pos = claimDequeue();
+        if (pos < 0) {
+            return null;
+        }
+        int index = index(pos);
+        T data = (T) buffer[index];
+        buffer[index] = null;
+        release(pos);
+        return data;
+    }
+
+    @Override
+    public int putAll(T[] data, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        int count;
+        for (int attempt = 0; (count = offerAll(data, offset, length)) == 0; attempt++) {
+            backoff(attempt);
+        }
+        return count;
+    }
+
+    @Override
+    public int drainTo(T[] buffer, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        int count;
+        for (int attempt = 0; (count = pollAll(buffer, offset, length)) == 0; attempt++) {
+            backoff(attempt);
+        }
+        return count;
+    }
+
+    @Override
+    public boolean offer(T data, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int attempt = 0; !offer(data); attempt++) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            backoff(attempt, remaining);
+        }
+        return true;
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        T data;
+        for (int attempt = 0; (data = poll()) == null; attempt++) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+            backoff(attempt, remaining);
+        }
+        return data;
+    }
+
+    @Override
+    void copyIn(int index, Object source, int sourceIndex) {
+        buffer[index] = ((Object[]) source)[sourceIndex];
+    }
+
+    @Override
+    void copyOut(int index, Object target, int targetIndex) {
+        ((Object[]) target)[targetIndex] = buffer[index];
+        buffer[index] = null;
+    }
+
+    @Override
+    Object slot(int index) {
+        return buffer[index];
+    }
+}
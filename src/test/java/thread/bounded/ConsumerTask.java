@@ -2,18 +2,18 @@ package thread.bounded;
 
 import thread.MyLogger;
 
-public class ConsumerTask implements Runnable {
+public class ConsumerTask<T> implements Runnable {
 
-    private final BoundedQueue queue;
+    private final BoundedQueue<T> queue;
 
-    public ConsumerTask(BoundedQueue queue) {
+    public ConsumerTask(BoundedQueue<T> queue) {
         this.queue = queue;
     }
 
     @Override
     public void run() {
         MyLogger.log("[소비 시도] <- " + queue);
-        String data = queue.take();
+        T data = queue.take();
         MyLogger.log("[소비 완료] " + data + " <- " + queue);
     }
 }
@@ -0,0 +1,79 @@
+package thread.bounded;
+
+/**
+ * HdrHistogram처럼 값의 범위를 2의 거듭제곱 구간으로 나누고 각 구간을 64개(처음 구간은 128개)로 다시 나눈 히스토그램
+ * 값의 크기와 관계없이 상대 오차가 1.6% 이내이고, 기록은 배열 한 칸을 증가시키는 것뿐이라 할당이 없다.
+ * 스레드마다 하나씩 기록하고 끝난 뒤에 {@link #add(LatencyHistogram)}로 합친다.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[index(Long.MAX_VALUE) + 1];
+    private long totalCount;
+    private long max;
+
+    private static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return (shift << (SUB_BUCKET_BITS - 1)) + (int) (value >>> shift);
+    }
+
+    /**
+     * index 구간에 속하는 가장 큰 값
+     */
+    private static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >> (SUB_BUCKET_BITS - 1)) - 1;
+        long lowest = (long) (index - (shift << (SUB_BUCKET_BITS - 1))) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * 음수는 0으로 기록한다.
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts[index(v)]++;
+        totalCount++;
+        max = Math.max(max, v);
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        max = Math.max(max, other.max);
+    }
+
+    public long totalCount() {
+        return totalCount;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    /**
+     * 기록한 값의 percentile(0 ~ 100) 위치에 있는 값, 구간의 가장 큰 값으로 반올림한다.
+     */
+    public long percentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max);
+            }
+        }
+        return max;
+    }
+}
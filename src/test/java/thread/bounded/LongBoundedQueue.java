@@ -0,0 +1,182 @@
+package thread.bounded;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * long을 담는 BoundedQueue, long[] 링에 값을 그대로 저장하므로 기본형 메서드(putLong, takeLong, putAll(long[]), drainTo(long[]))는
+ * 박싱도 노드 할당도 없다. 동작은 {@link BoundedQueueV7}과 같다.
+ * ProducerTask, ConsumerTask에서 쓸 수 있도록 BoundedQueue&lt;Long&gt;도 구현하지만 이 메서드들은 박싱한다.
+ */
+public class LongBoundedQueue extends SequencedRing implements BoundedQueue<Long> {
+
+    private final long[] buffer;
+
+    public LongBoundedQueue(int max) {
+        super(max);
+        this.buffer = new long[max];
+    }
+
+    /**
+     * 큐가 가득 차 있으면 기다리지 않고 false를 반환한다.
+     */
+    public boolean offerLong(long value) {
+        long pos = claimEnqueue();
+        if (pos < 0) {
+            return false;
+        }
+        buffer[index(pos)] = value;
+        publish(pos);
+        return true;
+    }
+
+    public boolean offerLong(long value, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int attempt = 0; !offerLong(value); attempt++) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            backoff(attempt, remaining);
+        }
+        return true;
+    }
+
+    public void putLong(long value) {
+        for (int attempt = 0; !offerLong(value); attempt++) {
+            backoff(attempt);
+        }
+    }
+
+    public long takeLong() {
+        long pos;
+        for (int attempt = 0; (pos = claimDequeue()) < 0; attempt++) {
+            backoff(attempt);
+        }
+        long value = buffer[index(pos)];
+        release(pos);
+        return value;
+    }
+
+    /**
+     * 기다리지 않고 values[offset]부터 들어가는 만큼 넣고 넣은 개수를 반환한다.
+     */
+    public int offerAll(long[] values, int offset, int length) {
+        return offerAll((Object) values, offset, length);
+    }
+
+    /**
+     * 기다리지 않고 최대 length개를 꺼내서 buffer[offset]부터 채우고 꺼낸 개수를 반환한다.
+     */
+    public int pollAll(long[] buffer, int offset, int length) {
+        return pollAll((Object) buffer, offset, length);
+    }
+
+    public int putAll(long[] values, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        int count;
+        for (int attempt = 0; (count = offerAll(values, offset, length)) == 0; attempt++) {
+            backoff(attempt);
+        }
+        return count;
+    }
+
+    public int drainTo(long[] buffer, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        int count;
+        for (int attempt = 0; (count = pollAll(buffer, offset, length)) == 0; attempt++) {
+            backoff(attempt);
+        }
+        return count;
+    }
+
+    @Override
+    public boolean put(Long data) {
+        putLong(data);
+        return true;
+    }
+
+    @Override
+    public Long take() {
+        return takeLong();
+    }
+
+    @Override
+    public boolean offer(Long data) {
+        return offerLong(data);
+    }
+
+    @Override
+    public boolean offer(Long data, long timeout, TimeUnit unit) throws InterruptedException {
+        return offerLong(data, timeout, unit);
+    }
+
+    @Override
+    public Long poll() {
+        long pos = claimDequeue();
+        if (pos < 0) {
+            return null;
+        }
+        long value = buffer[index(pos)];
+        release(pos);
+        return value;
+    }
+
+    @Override
+    public Long poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        Long data;
+        for (int attempt = 0; (data = poll()) == null; attempt++) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+            backoff(attempt, remaining);
+        }
+        return data;
+    }
+
+    @Override
+    public int putAll(Long[] data, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        putLong(data[offset]);
+        int count = 1;
+        while (count < length && offerLong(data[offset + count])) {
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public int drainTo(Long[] buffer, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        buffer[offset] = takeLong();
+        int count = 1;
+        for (Long data; count < length && (data = poll()) != null; count++) {
+            buffer[offset + count] = data;
+        }
+        return count;
+    }
+
+    @Override
+    void copyIn(int index, Object source, int sourceIndex) {
+        buffer[index] = ((long[]) source)[sourceIndex];
+    }
+
+    @Override
+    void copyOut(int index, Object target, int targetIndex) {
+        ((long[]) target)[targetIndex] = buffer[index];
+    }
+
+    @Override
+    Object slot(int index) {
+        return buffer[index];
+    }
+}
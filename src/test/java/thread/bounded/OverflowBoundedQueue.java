@@ -0,0 +1,160 @@
+package thread.bounded;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static thread.MyLogger.log;
+
+/**
+ * 다른 BoundedQueue를 감싸서 put이 큐가 가득 찼을 때 {@link OverflowPolicy}대로 동작하게 한다.
+ * 과부하에서 생산자가 무한정 기다리며 쌓이지 않고 정해진 시간 안에 부하를 덜어낼 수 있다.
+ * 꺼내는 연산은 감싼 큐에 그대로 위임한다.
+ */
+public class OverflowBoundedQueue<T> implements BoundedQueue<T> {
+
+    private final BoundedQueue<T> queue;
+    private final OverflowPolicy policy;
+    private final long timeoutNanos;
+    private final Consumer<? super T> callerRunsHandler;
+    private final LongAdder dropped = new LongAdder();
+
+    private OverflowBoundedQueue(BoundedQueue<T> queue, OverflowPolicy policy, long timeoutNanos,
+                                 Consumer<? super T> callerRunsHandler) {
+        this.queue = queue;
+        this.policy = policy;
+        this.timeoutNanos = timeoutNanos;
+        this.callerRunsHandler = callerRunsHandler;
+    }
+
+    /**
+     * 최대 timeout만큼 기다리고 넣지 못하면 버린다.
+     */
+    public static <T> OverflowBoundedQueue<T> block(BoundedQueue<T> queue, long timeout, TimeUnit unit) {
+        return new OverflowBoundedQueue<>(queue, OverflowPolicy.BLOCK, unit.toNanos(timeout), null);
+    }
+
+    public static <T> OverflowBoundedQueue<T> dropNewest(BoundedQueue<T> queue) {
+        return new OverflowBoundedQueue<>(queue, OverflowPolicy.DROP_NEWEST, 0, null);
+    }
+
+    public static <T> OverflowBoundedQueue<T> dropOldest(BoundedQueue<T> queue) {
+        return new OverflowBoundedQueue<>(queue, OverflowPolicy.DROP_OLDEST, 0, null);
+    }
+
+    /**
+     * 넣지 못한 데이터는 생산자 스레드에서 handler로 처리한다.
+     */
+    public static <T> OverflowBoundedQueue<T> callerRuns(BoundedQueue<T> queue, Consumer<? super T> handler) {
+        return new OverflowBoundedQueue<>(queue, OverflowPolicy.CALLER_RUNS, 0, handler);
+    }
+
+    public OverflowPolicy policy() {
+        return policy;
+    }
+
+    /**
+     * 버린 데이터 수, DROP_OLDEST는 밀려난 오래된 데이터를 센다.
+     */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 새 데이터를 큐에 넣었거나 생산자 스레드에서 처리했으면 true, 버렸으면 false를 반환한다.
+     * BLOCK에서 기다리는 중에 인터럽트되면 인터럽트 상태를 유지하고 새 데이터를 버린다.
+     */
+    @Override
+    public boolean put(T data) {
+        if (queue.offer(data)) {
+            return true;
+        }
+        switch (policy) {
+            case BLOCK -> {
+                try {
+                    if (queue.offer(data, timeoutNanos, TimeUnit.NANOSECONDS)) {
+                        return true;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return drop(data);
+            }
+            case DROP_NEWEST -> {
+                return drop(data);
+            }
+            case DROP_OLDEST -> {
+                // 다른 생산자가 빈 자리를 먼저 차지할 수 있으므로 넣을 때까지 반복한다.
+                do {
+                    T oldest = queue.poll();
+                    if (oldest != null) {
+                        dropped.increment();
+                        log("[DROP_OLDEST] 버림: " + oldest);
+                    }
+                } while (!queue.offer(data));
+                return true;
+            }
+            default -> {
+                callerRunsHandler.accept(data);
+                return true;
+            }
+        }
+    }
+
+    private boolean drop(T data) {
+        dropped.increment();
+        log("[" + policy + "] 버림: " + data);
+        return false;
+    }
+
+    /**
+     * 요소마다 {@link #put(Object)}을 적용하므로 넘침 정책으로 처리한 요소도 처리한 개수에 포함한다.
+     * 감싼 큐의 putAll은 가득 차면 기다리므로 사용하지 않는다.
+     */
+    @Override
+    public int putAll(T[] data, int offset, int length) {
+        int count = 0;
+        while (count < length && queue.offer(data[offset + count])) {
+            count++;
+        }
+        for (; count < length; count++) {
+            put(data[offset + count]);
+        }
+        return count;
+    }
+
+    @Override
+    public T take() {
+        return queue.take();
+    }
+
+    @Override
+    public int drainTo(T[] buffer, int offset, int length) {
+        return queue.drainTo(buffer, offset, length);
+    }
+
+    @Override
+    public boolean offer(T data) {
+        return queue.offer(data);
+    }
+
+    @Override
+    public boolean offer(T data, long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.offer(data, timeout, unit);
+    }
+
+    @Override
+    public T poll() {
+        return queue.poll();
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+        return queue.toString();
+    }
+}
@@ -0,0 +1,23 @@
+package thread.bounded;
+
+/**
+ * 큐가 가득 찼을 때 {@link OverflowBoundedQueue#put(Object)}이 취할 동작
+ */
+public enum OverflowPolicy {
+    /**
+     * 공간이 생길 때까지 정해진 시간만큼 기다리고, 그래도 넣지 못하면 새 데이터를 버린다.
+     */
+    BLOCK,
+    /**
+     * 기다리지 않고 새 데이터를 버린다.
+     */
+    DROP_NEWEST,
+    /**
+     * 가장 오래된 데이터를 꺼내서 버리고 새 데이터를 넣는다.
+     */
+    DROP_OLDEST,
+    /**
+     * 기다리지 않고 생산자 스레드에서 직접 처리한다. 생산자가 처리하는 동안 생산 속도가 자연스럽게 줄어든다.
+     */
+    CALLER_RUNS
+}
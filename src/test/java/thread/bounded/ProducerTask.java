@@ -2,12 +2,12 @@ package thread.bounded;
 
 import thread.MyLogger;
 
-public class ProducerTask implements Runnable {
+public class ProducerTask<T> implements Runnable {
 
-    private final BoundedQueue queue;
-    private final String request;
+    private final BoundedQueue<T> queue;
+    private final T request;
 
-    public ProducerTask(BoundedQueue queue, String request) {
+    public ProducerTask(BoundedQueue<T> queue, T request) {
         this.queue = queue;
         this.request = request;
     }
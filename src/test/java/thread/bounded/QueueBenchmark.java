@@ -0,0 +1,317 @@
+package thread.bounded;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * BoundedQueue 구현의 생산자, 소비자 처리량과 지연 시간을 측정한다.
+ * 생산자는 보낸 시각을 데이터로 넣고 소비자는 꺼낸 시각과의 차이(전달 지연)를 {@link LatencyHistogram}에 기록한다.
+ * 스레드마다 ThreadMXBean의 WAITING/TIMED_WAITING 진입 횟수(park, await, wait)와 BLOCKED 진입 횟수(모니터 경합),
+ * 리눅스에서는 /proc/thread-self/status의 자발적, 비자발적 컨텍스트 스위치 횟수를 측정 전후로 읽어서 합한다.
+ * 지금은 모든 구현이 ReentrantLock이나 park로 기다리므로 락 경합도 BLOCKED가 아닌 WAITING으로 잡혀서 blocks는 거의 0이고,
+ * 경합은 waits와 컨텍스트 스위치 횟수로 비교한다.
+ * {@link ThreadRuntime#VIRTUAL}이면 ThreadMXBean이 가상 스레드를 지원하지 않고 /proc은 캐리어 스레드의 값이므로 -1로 남긴다.
+ *
+ * put/take는 BoundedQueueV1, V5가 요소마다 로그를 남기므로 로그를 남기지 않는 시간 제한 offer/poll로 측정한다.
+ * LongBoundedQueue는 기본형 메서드로 측정한다.
+ */
+public class QueueBenchmark {
+    // 모든 생산자가 끝난 뒤에 소비자 수만큼 넣는 종료 신호, 시각은 시작 시각 기준이라 음수가 없다.
+    private static final long POISON = -1;
+    private static final Path THREAD_STATUS = Path.of("/proc/thread-self/status");
+
+    private final String name;
+    private final IntFunction<? extends BoundedQueue<Long>> factory;
+    private int producers = 1;
+    private int consumers = 1;
+    private int capacity = 1024;
+    private long operations = 1_000_000;
+    private long warmupOperations = 100_000;
+    private ThreadRuntime runtime = ThreadRuntime.PLATFORM;
+
+    public QueueBenchmark(String name, IntFunction<? extends BoundedQueue<Long>> factory) {
+        this.name = name;
+        this.factory = factory;
+    }
+
+    /**
+     * 측정할 모든 구현, V1과 V2도 가득 차거나 비어 있으면 Condition에서 기다리는 시간 제한 offer/poll로 측정한다.
+     */
+    public static List<QueueBenchmark> all() {
+        return List.of(
+                new QueueBenchmark("V1", BoundedQueueV1::new),
+                new QueueBenchmark("V2", BoundedQueueV2::new),
+                new QueueBenchmark("V5", BoundedQueueV5::new),
+                new QueueBenchmark("V6_1", BoundedQueueV6_1::new),
+                new QueueBenchmark("V7", BoundedQueueV7::new),
+                new QueueBenchmark("Long", LongBoundedQueue::new));
+    }
+
+    public QueueBenchmark producers(int producers) {
+        this.producers = producers;
+        return this;
+    }
+
+    public QueueBenchmark consumers(int consumers) {
+        this.consumers = consumers;
+        return this;
+    }
+
+    public QueueBenchmark capacity(int capacity) {
+        this.capacity = capacity;
+        return this;
+    }
+
+    /**
+     * 모든 생산자가 합쳐서 보낼 데이터 수
+     */
+    public QueueBenchmark operations(long operations) {
+        this.operations = operations;
+        return this;
+    }
+
+    /**
+     * 측정 전에 JIT 컴파일을 위해 같은 설정으로 한 번 더 실행할 데이터 수, 0이면 생략한다.
+     */
+    public QueueBenchmark warmupOperations(long warmupOperations) {
+        this.warmupOperations = warmupOperations;
+        return this;
+    }
+
+    public QueueBenchmark runtime(ThreadRuntime runtime) {
+        this.runtime = runtime;
+        return this;
+    }
+
+    /**
+     * 측정 결과, 지연 시간은 나노초
+     */
+    public record Result(String name, ThreadRuntime runtime, int producers, int consumers, int capacity, long operations,
+                         double opsPerSecond, long p50, long p99, long p999, long max,
+                         long waits, long blocks, long voluntarySwitches, long involuntarySwitches) {
+
+        public static String header() {
+            return String.format("%-6s %-8s %6s %6s %6s %14s %10s %10s %10s %12s %10s %10s %10s %10s",
+                    "queue", "runtime", "prod", "cons", "cap", "ops/s", "p50(ns)", "p99(ns)", "p99.9(ns)", "max(ns)",
+                    "waits", "blocks", "vol-cs", "invol-cs");
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-6s %-8s %6d %6d %6d %,14.0f %10d %10d %10d %12d %10d %10d %10d %10d",
+                    name, runtime, producers, consumers, capacity, opsPerSecond, p50, p99, p999, max,
+                    waits, blocks, voluntarySwitches, involuntarySwitches);
+        }
+    }
+
+    public Result run() throws InterruptedException {
+        if (warmupOperations > 0) {
+            run(warmupOperations);
+        }
+        return run(operations);
+    }
+
+    private Result run(long operations) throws InterruptedException {
+        BoundedQueue<Long> queue = factory.apply(capacity);
+        long base = System.nanoTime();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Worker> producerWorkers = new ArrayList<>();
+        List<Worker> consumerWorkers = new ArrayList<>();
+        for (int i = 0; i < producers; i++) {
+            long count = operations / producers + (i < operations % producers ? 1 : 0);
+            producerWorkers.add(new Worker(start, () -> produce(queue, base, count)));
+        }
+        for (int i = 0; i < consumers; i++) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            Worker worker = new Worker(start, () -> consume(queue, base, histogram));
+            worker.histogram = histogram;
+            consumerWorkers.add(worker);
+        }
+        List<Thread> threads = new ArrayList<>();
+        for (Worker worker : producerWorkers) {
+            threads.add(runtime.newThread(worker, name + "-producer"));
+        }
+        for (Worker worker : consumerWorkers) {
+            threads.add(runtime.newThread(worker, name + "-consumer"));
+        }
+        threads.forEach(Thread::start);
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (int i = 0; i < producers; i++) {
+            threads.get(i).join();
+        }
+        for (int i = 0; i < consumers; i++) {
+            send(queue, POISON);
+        }
+        for (int i = producers; i < threads.size(); i++) {
+            threads.get(i).join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        LatencyHistogram latency = new LatencyHistogram();
+        long waits = 0;
+        long blocks = 0;
+        long voluntary = 0;
+        long involuntary = 0;
+        List<Worker> workers = new ArrayList<>(producerWorkers);
+        workers.addAll(consumerWorkers);
+        for (Worker worker : workers) {
+            if (worker.failure != null) {
+                throw new IllegalStateException(name + " worker failed", worker.failure);
+            }
+            if (worker.histogram != null) {
+                latency.add(worker.histogram);
+            }
+            waits += worker.waits;
+            blocks += worker.blocks;
+            voluntary += worker.voluntarySwitches;
+            involuntary += worker.involuntarySwitches;
+        }
+        if (latency.totalCount() != operations) {
+            throw new IllegalStateException(name + " received " + latency.totalCount() + " of " + operations);
+        }
+        if (runtime == ThreadRuntime.VIRTUAL) {
+            waits = blocks = voluntary = involuntary = -1;
+        }
+        return new Result(name, runtime, producers, consumers, capacity, operations,
+                operations * 1e9 / elapsed, latency.percentile(50), latency.percentile(99),
+                latency.percentile(99.9), latency.max(), waits, blocks, voluntary, involuntary);
+    }
+
+    private static void produce(BoundedQueue<Long> queue, long base, long count) {
+        for (long i = 0; i < count; i++) {
+            send(queue, System.nanoTime() - base);
+        }
+    }
+
+    private static void consume(BoundedQueue<Long> queue, long base, LatencyHistogram histogram) {
+        while (true) {
+            long sent = receive(queue);
+            if (sent == POISON) {
+                return;
+            }
+            histogram.record(System.nanoTime() - base - sent);
+        }
+    }
+
+    private static void send(BoundedQueue<Long> queue, long value) {
+        if (queue instanceof LongBoundedQueue longQueue) {
+            longQueue.putLong(value);
+            return;
+        }
+        try {
+            while (!queue.offer(value, 1, TimeUnit.SECONDS)) {
+                // 가득 찬 채로 시간이 지났으면 다시 기다린다.
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static long receive(BoundedQueue<Long> queue) {
+        if (queue instanceof LongBoundedQueue longQueue) {
+            return longQueue.takeLong();
+        }
+        try {
+            Long value;
+            while ((value = queue.poll(1, TimeUnit.SECONDS)) == null) {
+                // 빈 채로 시간이 지났으면 다시 기다린다.
+            }
+            return value;
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 자기 스레드의 대기 횟수와 컨텍스트 스위치 횟수를 작업 전후로 읽어서 차이를 남긴다.
+     */
+    private static final class Worker implements Runnable {
+        private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+        private final CountDownLatch start;
+        private final Runnable task;
+        private LatencyHistogram histogram;
+        private long waits;
+        private long blocks;
+        private long voluntarySwitches;
+        private long involuntarySwitches;
+        private Throwable failure;
+
+        Worker(CountDownLatch start, Runnable task) {
+            this.start = start;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            try {
+                start.await();
+                if (Thread.currentThread().isVirtual()) {
+                    task.run();
+                    return;
+                }
+                ThreadInfo before = THREADS.getThreadInfo(Thread.currentThread().threadId());
+                long[] switchesBefore = contextSwitches();
+                task.run();
+                ThreadInfo after = THREADS.getThreadInfo(Thread.currentThread().threadId());
+                long[] switchesAfter = contextSwitches();
+                if (before != null && after != null) {
+                    waits = after.getWaitedCount() - before.getWaitedCount();
+                    blocks = after.getBlockedCount() - before.getBlockedCount();
+                }
+                voluntarySwitches = switchesAfter[0] - switchesBefore[0];
+                involuntarySwitches = switchesAfter[1] - switchesBefore[1];
+            } catch (Throwable e) {
+                failure = e;
+            }
+        }
+
+        /**
+         * 리눅스가 아니면 0을 반환한다.
+         */
+        private static long[] contextSwitches() {
+            long[] switches = new long[2];
+            try {
+                for (String line : Files.readAllLines(THREAD_STATUS)) {
+                    if (line.startsWith("voluntary_ctxt_switches:")) {
+                        switches[0] = Long.parseLong(line.substring(line.indexOf(':') + 1).trim());
+                    } else if (line.startsWith("nonvoluntary_ctxt_switches:")) {
+                        switches[1] = Long.parseLong(line.substring(line.indexOf(':') + 1).trim());
+                    }
+                }
+            } catch (IOException | UnsupportedOperationException e) {
+                return switches;
+            }
+            return switches;
+        }
+    }
+
+    /**
+     * 생산자, 소비자 수와 용량을 바꿔가며 모든 구현을 측정한다. 가상 스레드는 플랫폼 스레드로는 어려운 수까지 늘린다.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println(Result.header());
+        for (ThreadRuntime runtime : ThreadRuntime.values()) {
+            int[] threadCounts = runtime == ThreadRuntime.VIRTUAL ? new int[]{1, 16, 1_000, 10_000} : new int[]{1, 4, 16};
+            for (int threads : threadCounts) {
+                for (int capacity : new int[]{16, 1024}) {
+                    for (QueueBenchmark benchmark : all()) {
+                        System.out.println(benchmark.runtime(runtime).producers(threads).consumers(threads)
+                                .capacity(capacity).run());
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package thread.bounded;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 락 없이 배열로 구현한 다중 생산자, 다중 소비자 링(Dmitry Vyukov의 bounded MPMC queue)의 위치 관리
+ * 슬롯마다 시퀀스 번호를 두어 슬롯이 비었는지(넣을 위치의 {@link #empty(long)}), 찼는지(꺼낼 위치의 {@link #full(long)})를 구분한다.
+ * 생산자끼리는 enqueuePos를, 소비자끼리는 dequeuePos를 CAS로 차지하고, 생산자와 소비자는 슬롯의 시퀀스로만 만난다.
+ *
+ * 데이터 배열은 하위 클래스가 가진다. 위치를 차지한 스레드는 슬롯을 읽거나 쓴 뒤에 {@link #publish(long)}이나 {@link #release(long)}로 공개한다.
+ * 참조를 담는 {@link BoundedQueueV7}과 long을 담는 {@link LongBoundedQueue}가 사용한다.
+ */
+abstract class SequencedRing extends SequencedRingConsumerFields {
+    private static final int SPINS = 128;
+    private static final int YIELDS = 16;
+    private static final long MAX_PARK_NANOS = 1_000_000;
+
+    private final AtomicLongArray sequences;
+    final int capacity;
+    // capacity가 2의 거듭제곱이면 나머지 연산 대신 마스크를 쓴다. 아니면 -1
+    private final int mask;
+
+    SequencedRing(int max) {
+        if (max <= 0) {
+            throw new IllegalArgumentException("max must be positive: " + max);
+        }
+        this.capacity = max;
+        this.mask = Integer.bitCount(max) == 1 ? max - 1 : -1;
+        this.sequences = new AtomicLongArray(max);
+        for (int i = 0; i < max; i++) {
+            sequences.set(i, empty(i));
+        }
+    }
+
+    final int index(long pos) {
+        return mask >= 0 ? (int) (pos & mask) : (int) (pos % capacity);
+    }
+
+    /**
+     * pos번째 데이터를 넣을 수 있는 슬롯의 시퀀스, 원래 알고리즘은 pos를 그대로 쓰지만 그러면 용량이 1일 때
+     * pos번째 데이터가 찬 슬롯(pos + 1)과 pos + 1번째 데이터를 넣을 수 있는 슬롯을 구분할 수 없으므로 두 배로 늘린다.
+     */
+    private static long empty(long pos) {
+        return pos << 1;
+    }
+
+    /**
+     * pos번째 데이터가 들어 있는 슬롯의 시퀀스
+     */
+    private static long full(long pos) {
+        return (pos << 1) | 1;
+    }
+
+    /**
+     * 데이터를 넣을 위치를 하나 차지한다. 큐가 가득 차 있으면 -1을 반환한다.
+     */
+    final long claimEnqueue() {
+        long pos = (long) ENQUEUE_POS.getOpaque(this);
+        while (true) {
+            long diff = sequences.getAcquire(index(pos)) - empty(pos);
+            if (diff == 0) {
+                if (ENQUEUE_POS.weakCompareAndSet(this, pos, pos + 1)) {
+                    return pos;
+                }
+            } else if (diff < 0) {
+                // 한 바퀴 전의 데이터를 아직 소비자가 꺼내지 않았다.
+                return -1;
+            }
+            pos = (long) ENQUEUE_POS.getOpaque(this);
+        }
+    }
+
+    /**
+     * 데이터를 꺼낼 위치를 하나 차지한다. 큐가 비어 있으면 -1을 반환한다.
+     */
+    final long claimDequeue() {
+        long pos = (long) DEQUEUE_POS.getOpaque(this);
+        while (true) {
+            long diff = sequences.getAcquire(index(pos)) - full(pos);
+            if (diff == 0) {
+                if (DEQUEUE_POS.weakCompareAndSet(this, pos, pos + 1)) {
+                    return pos;
+                }
+            } else if (diff < 0) {
+                return -1;
+            }
+            pos = (long) DEQUEUE_POS.getOpaque(this);
+        }
+    }
+
+    /**
+     * 슬롯에 데이터를 쓴 뒤에 호출해야 소비자가 비어 있는 슬롯을 읽지 않는다.
+     */
+    final void publish(long pos) {
+        sequences.setRelease(index(pos), full(pos));
+    }
+
+    /**
+     * 슬롯을 읽은 뒤에 호출해서 다음 바퀴의 생산자가 이 슬롯을 쓸 수 있게 한다.
+     */
+    final void release(long pos) {
+        sequences.setRelease(index(pos), empty(pos + capacity));
+    }
+
+    /**
+     * enqueuePos부터 연속으로 비어 있는 슬롯을 최대 length개 세고 CAS 한 번으로 모두 차지한 뒤
+     * source[offset]부터 복사해서 공개한다. 큐가 가득 차 있으면 0을 반환한다.
+     * 비어 있는 슬롯은 다른 생산자가 위치를 차지하기 전에는 바뀌지 않으므로 CAS에 성공하면 센 슬롯은 모두 이 스레드의 것이다.
+     */
+    final int offerAll(Object source, int offset, int length) {
+        while (true) {
+            long pos = (long) ENQUEUE_POS.getOpaque(this);
+            int count = 0;
+            while (count < length && sequences.getAcquire(index(pos + count)) == empty(pos + count)) {
+                count++;
+            }
+            if (count == 0) {
+                if (sequences.getAcquire(index(pos)) - empty(pos) < 0) {
+                    return 0;
+                }
+                // 다른 생산자가 먼저 차지했다.
+                continue;
+            }
+            if (ENQUEUE_POS.compareAndSet(this, pos, pos + count)) {
+                for (int i = 0; i < count; i++) {
+                    copyIn(index(pos + i), source, offset + i);
+                    publish(pos + i);
+                }
+                return count;
+            }
+        }
+    }
+
+    /**
+     * dequeuePos부터 연속으로 채워진 슬롯을 최대 length개 세고 CAS 한 번으로 모두 차지한 뒤 target[offset]부터 복사한다.
+     * 큐가 비어 있으면 0을 반환한다.
+     */
+    final int pollAll(Object target, int offset, int length) {
+        while (true) {
+            long pos = (long) DEQUEUE_POS.getOpaque(this);
+            int count = 0;
+            while (count < length && sequences.getAcquire(index(pos + count)) == full(pos + count)) {
+                count++;
+            }
+            if (count == 0) {
+                if (sequences.getAcquire(index(pos)) - full(pos) < 0) {
+                    return 0;
+                }
+                continue;
+            }
+            if (DEQUEUE_POS.compareAndSet(this, pos, pos + count)) {
+                for (int i = 0; i < count; i++) {
+                    copyOut(index(pos + i), target, offset + i);
+                    release(pos + i);
+                }
+                return count;
+            }
+        }
+    }
+
+    /**
+     * source 배열의 sourceIndex번째 요소를 슬롯에 쓴다.
+     */
+    abstract void copyIn(int index, Object source, int sourceIndex);
+
+    /**
+     * 슬롯의 데이터를 target 배열의 targetIndex번째에 쓰고, 참조라면 슬롯을 비운다.
+     */
+    abstract void copyOut(int index, Object target, int targetIndex);
+
+    /**
+     * toString에 사용할 슬롯의 데이터
+     */
+    abstract Object slot(int index);
+
+    /**
+     * 인터럽트되면 BoundedQueueV5처럼 InterruptedException을 RuntimeException으로 감싸서 던진다.
+     */
+    static void backoff(int attempt) {
+        try {
+            backoff(attempt, Long.MAX_VALUE);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 큐가 가득 차거나 비어 있으면 깨워 줄 스레드가 없으므로 잠깐 스핀하고, 양보하고, 점점 길게 잠드는 순서로 다시 시도한다.
+     * 잠드는 시간은 maxNanos를 넘지 않는다.
+     */
+    static void backoff(int attempt, long maxNanos) throws InterruptedException {
+        if (attempt < SPINS) {
+            Thread.onSpinWait();
+        } else if (attempt < SPINS + YIELDS) {
+            Thread.yield();
+        } else {
+            long parkNanos = Math.min(MAX_PARK_NANOS, 1_000L << Math.min(attempt - SPINS - YIELDS, 10));
+            LockSupport.parkNanos(Math.min(parkNanos, maxNanos));
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * 다른 스레드가 넣고 빼는 중이면 그 순간의 정확한 내용이 아닐 수 있다.
+     */
+    @Override
+    public String toString() {
+        List<Object> snapshot = new ArrayList<>();
+        long tail = (long) ENQUEUE_POS.getAcquire(this);
+        for (long pos = (long) DEQUEUE_POS.getAcquire(this); pos < tail; pos++) {
+            int index = index(pos);
+            if (sequences.getAcquire(index) == full(pos)) {
+                snapshot.add(slot(index));
+            }
+        }
+        return snapshot.toString();
+    }
+
+    private static final VarHandle ENQUEUE_POS;
+    private static final VarHandle DEQUEUE_POS;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            ENQUEUE_POS = lookup.findVarHandle(SequencedRingProducerFields.class, "enqueuePos", long.class);
+            DEQUEUE_POS = lookup.findVarHandle(SequencedRingConsumerFields.class, "dequeuePos", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
+
+/**
+ * 생산자들이 경쟁하는 enqueuePos와 소비자들이 경쟁하는 dequeuePos를 서로 다른 캐시 라인에 둔다.
+ * 필드는 상위 클래스의 것부터 배치되므로 상속 계층 사이에 long 필드를 채워 넣는다.
+ */
+abstract class SequencedRingPad0 {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    long p08, p09, p0a, p0b, p0c, p0d, p0e, p0f;
+}
+
+abstract class SequencedRingProducerFields extends SequencedRingPad0 {
+    volatile long enqueuePos;
+}
+
+abstract class SequencedRingPad1 extends SequencedRingProducerFields {
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+    long p18, p19, p1a, p1b, p1c, p1d, p1e, p1f;
+}
+
+abstract class SequencedRingConsumerFields extends SequencedRingPad1 {
+    volatile long dequeuePos;
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+    long p28, p29, p2a, p2b, p2c, p2d, p2e, p2f;
+}
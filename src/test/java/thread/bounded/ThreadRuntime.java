@@ -0,0 +1,32 @@
+package thread.bounded;
+
+/**
+ * 생산자와 소비자 태스크를 실행할 스레드 종류
+ */
+public enum ThreadRuntime {
+    /**
+     * 태스크마다 플랫폼 스레드를 만든다. 스레드마다 OS 스레드와 스택을 차지하므로 동시에 수천 개 정도가 한계다.
+     */
+    PLATFORM,
+    /**
+     * 태스크마다 가상 스레드를 만든다. 큐에서 기다리는 동안 캐리어 스레드를 놓아주므로 수십만 개가 동시에 기다릴 수 있다.
+     * synchronized 안에서 기다리면 캐리어 스레드를 붙잡으므로(pinning) 큐 구현은 ReentrantLock, Condition이나 park로 기다려야 한다.
+     */
+    VIRTUAL;
+
+    /**
+     * 아직 시작하지 않은 스레드를 만든다.
+     */
+    public Thread newThread(Runnable task, String name) {
+        return switch (this) {
+            case PLATFORM -> Thread.ofPlatform().name(name).unstarted(task);
+            case VIRTUAL -> Thread.ofVirtual().name(name).unstarted(task);
+        };
+    }
+
+    public Thread start(Runnable task, String name) {
+        Thread thread = newThread(task, name);
+        thread.start();
+        return thread;
+    }
+}
@@ -0,0 +1,144 @@
+package modernJava;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API(jdk.incubator.vector)로 CPU가 지원하는 가장 넓은 SIMD 레지스터 단위로 계산하는 커널
+ * 레인마다 누적한 뒤 마지막에 레인끼리 합치고, 레지스터 폭으로 나누어 떨어지지 않는 나머지는 스칼라로 처리한다.
+ * 모듈이 없는 환경에서도 읽힐 수 있도록 {@link LeafKernels}가 리플렉션으로만 생성한다.
+ */
+final class VectorLeafKernel implements LeafKernel {
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public long sum(long[] array, int from, int to) {
+        LongVector acc = LongVector.zero(LONGS);
+        int i = from;
+        for (int upper = from + LONGS.loopBound(to - from); i < upper; i += LONGS.length()) {
+            acc = acc.add(LongVector.fromArray(LONGS, array, i));
+        }
+        long result = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            result = result + array[i];
+        }
+        return result;
+    }
+
+    @Override
+    public long min(long[] array, int from, int to) {
+        LongVector acc = LongVector.broadcast(LONGS, Long.MAX_VALUE);
+        int i = from;
+        for (int upper = from + LONGS.loopBound(to - from); i < upper; i += LONGS.length()) {
+            acc = acc.min(LongVector.fromArray(LONGS, array, i));
+        }
+        long result = acc.reduceLanes(VectorOperators.MIN);
+        for (; i < to; i++) {
+            result = Math.min(result, array[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public long max(long[] array, int from, int to) {
+        LongVector acc = LongVector.broadcast(LONGS, Long.MIN_VALUE);
+        int i = from;
+        for (int upper = from + LONGS.loopBound(to - from); i < upper; i += LONGS.length()) {
+            acc = acc.max(LongVector.fromArray(LONGS, array, i));
+        }
+        long result = acc.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            result = Math.max(result, array[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public int sum(int[] array, int from, int to) {
+        IntVector acc = IntVector.zero(INTS);
+        int i = from;
+        for (int upper = from + INTS.loopBound(to - from); i < upper; i += INTS.length()) {
+            acc = acc.add(IntVector.fromArray(INTS, array, i));
+        }
+        int result = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            result = result + array[i];
+        }
+        return result;
+    }
+
+    @Override
+    public int min(int[] array, int from, int to) {
+        IntVector acc = IntVector.broadcast(INTS, Integer.MAX_VALUE);
+        int i = from;
+        for (int upper = from + INTS.loopBound(to - from); i < upper; i += INTS.length()) {
+            acc = acc.min(IntVector.fromArray(INTS, array, i));
+        }
+        int result = acc.reduceLanes(VectorOperators.MIN);
+        for (; i < to; i++) {
+            result = Math.min(result, array[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public int max(int[] array, int from, int to) {
+        IntVector acc = IntVector.broadcast(INTS, Integer.MIN_VALUE);
+        int i = from;
+        for (int upper = from + INTS.loopBound(to - from); i < upper; i += INTS.length()) {
+            acc = acc.max(IntVector.fromArray(INTS, array, i));
+        }
+        int result = acc.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            result = Math.max(result, array[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public double sum(double[] array, int from, int to) {
+        DoubleVector acc = DoubleVector.zero(DOUBLES);
+        int i = from;
+        for (int upper = from + DOUBLES.loopBound(to - from); i < upper; i += DOUBLES.length()) {
+            acc = acc.add(DoubleVector.fromArray(DOUBLES, array, i));
+        }
+        double result = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            result = result + array[i];
+        }
+        return result;
+    }
+
+    @Override
+    public double min(double[] array, int from, int to) {
+        DoubleVector acc = DoubleVector.broadcast(DOUBLES, Double.POSITIVE_INFINITY);
+        int i = from;
+        for (int upper = from + DOUBLES.loopBound(to - from); i < upper; i += DOUBLES.length()) {
+            acc = acc.min(DoubleVector.fromArray(DOUBLES, array, i));
+        }
+        double result = acc.reduceLanes(VectorOperators.MIN);
+        for (; i < to; i++) {
+            result = Math.min(result, array[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public double max(double[] array, int from, int to) {
+        DoubleVector acc = DoubleVector.broadcast(DOUBLES, Double.NEGATIVE_INFINITY);
+        int i = from;
+        for (int upper = from + DOUBLES.loopBound(to - from); i < upper; i += DOUBLES.length()) {
+            acc = acc.max(DoubleVector.fromArray(DOUBLES, array, i));
+        }
+        double result = acc.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            result = Math.max(result, array[i]);
+        }
+        return result;
+    }
+}